@@ -0,0 +1,83 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Fixtures for the benchmarks: {@link SyntheticCollectionGenerator} collections with exactly the requested number
+ * of items, in folders of 50. About a fifth of the requests are duplicates, and one saved response in a thousand
+ * is too long for a cell, so dedupe and overflow paths get exercised.
+ */
+final class BenchmarkCollections {
+    private static final int FOLDER_SIZE = 50;
+
+    private BenchmarkCollections() {
+    }
+
+    static Path createTempDir() throws IOException {
+        return Files.createTempDirectory("postman-bench");
+    }
+
+    static File write(Path dir, int items, long seed) throws IOException {
+        File file = dir.resolve("synthetic_" + items + ".json").toFile();
+        SyntheticCollectionGenerator.Options options = new SyntheticCollectionGenerator.Options()
+                .seed(seed)
+                .depth(1)
+                .folders(Math.max(1, items / FOLDER_SIZE))
+                .itemsPerFolder(Math.min(items, FOLDER_SIZE))
+                .bodyChars(256)
+                .responseChars(512)
+                .oversizedShare(0.001);
+        new SyntheticCollectionGenerator(options).write(file, "Synthetic " + items);
+        return file;
+    }
+
+    static List<JsonNode> readItems(File file) throws IOException {
+        List<JsonNode> items = new ArrayList<>();
+        PostmanCollectionReader.read(file, (PostmanItem item) -> items.add(item.getNode()));
+        return items;
+    }
+
+    /**
+     * Swallows the console output of the tools, which would otherwise dominate the measurements: raises every
+     * logger to warn and drops anything still printed to System.out.
+     */
+    static PrintStream silenceStdout() {
+        Configurator.setAllLevels(LogManager.ROOT_LOGGER_NAME, Level.WARN);
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        return original;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item work of the Excel exporters over a whole synthetic collection: building the cURL command, extracting
+ * the saved responses and fitting bodies into a cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExporterBenchmark {
+    private static final int MAX_RESPONSE_LENGTH = 32000;
+
+    @Param({"1000", "10000", "100000"})
+    int items;
+
+    private Path dir;
+    private List<JsonNode> nodes;
+    private List<String> bodies;
+    private OverflowStore overflow;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stdout = BenchmarkCollections.silenceStdout();
+        dir = BenchmarkCollections.createTempDir();
+        File collection = BenchmarkCollections.write(dir, items, 42);
+        nodes = BenchmarkCollections.readItems(collection);
+        bodies = new ArrayList<>();
+        for (JsonNode node : nodes) {
+            for (Map<String, String> response : CollectionToExcelProcessAll.extractSavedResponses(node)) {
+                bodies.add(response.get("body"));
+            }
+        }
+        overflow = new OverflowStore(dir.resolve("bench.xlsx.overflow"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        overflow.close();
+        BenchmarkCollections.deleteRecursively(dir);
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public void generateCurlCommand(Blackhole blackhole) {
+        for (JsonNode node : nodes) {
+            blackhole.consume(CollectionToExcelProcessAll.generateCurlCommand(node.path("request")));
+        }
+    }
+
+    @Benchmark
+    public void extractSavedResponses(Blackhole blackhole) {
+        for (JsonNode node : nodes) {
+            blackhole.consume(CollectionToExcelProcessAll.extractSavedResponses(node));
+        }
+    }
+
+    // What truncateResponse does per cell; oversized bodies are already stored after the first pass
+    @Benchmark
+    public void truncateResponse(Blackhole blackhole) throws IOException {
+        for (String body : bodies) {
+            blackhole.consume(overflow.cellValue(body, MAX_RESPONSE_LENGTH));
+        }
+    }
+}
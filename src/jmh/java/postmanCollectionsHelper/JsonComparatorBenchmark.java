@@ -0,0 +1,59 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonComparator#compareJson} over the saved responses of a synthetic collection: every other pair is
+ * identical, the rest differ in most fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonComparatorBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int items;
+
+    private final List<String[]> pairs = new ArrayList<>();
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stdout = BenchmarkCollections.silenceStdout();
+        Path dir = BenchmarkCollections.createTempDir();
+        try {
+            List<JsonNode> nodes = BenchmarkCollections.readItems(BenchmarkCollections.write(dir, items, 42));
+            for (int i = 0; i < nodes.size(); i++) {
+                JsonNode responses = nodes.get(i).path("response");
+                String expected = responses.path(0).path("body").asText();
+                String actual = i % 2 == 0 ? expected : responses.path(1).path("body").asText();
+                pairs.add(new String[]{expected, actual});
+            }
+        } finally {
+            BenchmarkCollections.deleteRecursively(dir);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public void compareJson(Blackhole blackhole) {
+        for (String[] pair : pairs) {
+            blackhole.consume(JsonComparator.compareJson(pair[0], pair[1]));
+        }
+    }
+}
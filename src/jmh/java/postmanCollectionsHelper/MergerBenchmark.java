@@ -0,0 +1,53 @@
+package postmanCollectionsHelper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One collection through {@link PostmanCollectionMerger}'s visitor: streaming read, fingerprint dedupe and the
+ * streaming writer. The merge history is disabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MergerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    int items;
+
+    private Path dir;
+    private File collection;
+    private File output;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stdout = BenchmarkCollections.silenceStdout();
+        dir = BenchmarkCollections.createTempDir();
+        collection = BenchmarkCollections.write(dir, items, 42);
+        output = dir.resolve("merged.json").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkCollections.deleteRecursively(dir);
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public FingerprintSet processItems() throws IOException {
+        FingerprintSet processedRequests = new FingerprintSet();
+        try (MergeHistory history = MergeHistory.fromSystemProperties();
+             MergedCollectionWriter writer = new MergedCollectionWriter(output, "Merged Collection")) {
+            PostmanCollectionReader.read(collection, new PostmanCollectionMerger.MergeVisitor(processedRequests, history, writer));
+        }
+        return processedRequests;
+    }
+}
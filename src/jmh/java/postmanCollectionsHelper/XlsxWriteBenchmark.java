@@ -0,0 +1,93 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XLSX output: rows already built, written through the same SXSSF setup as the exporters, and the whole
+ * {@link CollectionToExcelProcessAll} export of one synthetic collection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class XlsxWriteBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int items;
+
+    private Path dir;
+    private Path inputDir;
+    private File output;
+    private List<RowData> rows;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stdout = BenchmarkCollections.silenceStdout();
+        dir = BenchmarkCollections.createTempDir();
+        inputDir = Files.createDirectory(dir.resolve("collections"));
+        output = dir.resolve("API_Details.xlsx").toFile();
+        rows = new ArrayList<>();
+        for (JsonNode node : BenchmarkCollections.readItems(BenchmarkCollections.write(inputDir, items, 42))) {
+            String curl = CollectionToExcelProcessAll.generateCurlCommand(node.path("request"));
+            for (Map<String, String> response : CollectionToExcelProcessAll.extractSavedResponses(node)) {
+                RowData row = new RowData();
+                row.set(0, "synthetic.json");
+                row.set(1, node.path("name").asText());
+                row.set(4, node.path("request").path("method").asText());
+                row.set(6, curl);
+                row.set(7, 2);
+                // The oversized bodies are left out; they would only measure the overflow store
+                String body = response.get("body");
+                row.set(8, body.length() > 32000 ? body.substring(0, 32000) : body);
+                row.set(9, response.get("headers"));
+                row.set(10, response.get("status"));
+                row.set(11, response.get("code"));
+                rows.add(row);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkCollections.deleteRecursively(dir);
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public void writeRows() throws IOException {
+        SXSSFWorkbook workbook = StreamingWorkbooks.create();
+        Sheet sheet = workbook.createSheet("API Details");
+        int rowNum = 0;
+        for (RowData row : rows) {
+            row.writeTo(sheet.createRow(rowNum++));
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            workbook.write(out);
+        }
+        workbook.dispose();
+        workbook.close();
+    }
+
+    @Benchmark
+    public void exportCollection() throws IOException {
+        CollectionToExcelProcessAll.processPostmanCollections(inputDir.toString(), output.toString());
+    }
+}
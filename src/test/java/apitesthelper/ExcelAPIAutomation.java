@@ -1,75 +1,163 @@
 package apitesthelper;
-import io.restassured.RestAssured;
-import io.restassured.response.Response;
-import io.restassured.specification.RequestSpecification;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import postmanCollectionsHelper.CurlExecutionEngine;
+import postmanCollectionsHelper.CurlParser;
+import postmanCollectionsHelper.CurlRequest;
+import postmanCollectionsHelper.HttpTransport;
+import postmanCollectionsHelper.RunMetrics;
+import postmanCollectionsHelper.PlaceholderTemplate;
+import postmanCollectionsHelper.ResponseSink;
+import postmanCollectionsHelper.ResponseSink.StoredResponse;
+import postmanCollectionsHelper.ResultsLog;
+import postmanCollectionsHelper.StreamingXlsxReader;
+import postmanCollectionsHelper.StreamingXlsxReader.XlsxCell;
+import postmanCollectionsHelper.XlsxCellPatcher;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 public class ExcelAPIAutomation {
+    private static final Logger LOG = LogManager.getLogger(ExcelAPIAutomation.class);
+    private static final int MAX_CELL_LENGTH = 32767;
+    // Only logged at debug level; the cell is filled from the response file
+    private static final int PREVIEW_LENGTH = 500;
+    private static final boolean RESUME = Boolean.getBoolean("resume");
+    private static Properties properties = new Properties();
+    private static HttpTransport transport;
     private static String authToken;
     private static String categoriesUrl;
     private static String excelFilePath = "api_request.xlsx";
 
     public static void main(String[] args) {
-        System.out.println("Starting Excel API Automation...");
+        LOG.info("Starting Excel API Automation...");
         loadProperties();
         processExcelData();
-        System.out.println("Process completed.");
+        LOG.info("Process completed.");
+        RunMetrics.shared().report(excelFilePath);
     }
 
     private static void loadProperties() {
         try (FileInputStream fis = new FileInputStream("config.properties")) {
-            Properties properties = new Properties();
             properties.load(fis);
             authToken = properties.getProperty("auth_token");
             categoriesUrl = properties.getProperty("categories_url");
-            System.out.println("Properties loaded successfully.");
+            LOG.info("Properties loaded successfully.");
         } catch (IOException e) {
-            System.err.println("Error loading properties file: " + e.getMessage());
+            LOG.error("Error loading properties file: {}", e.getMessage());
         }
     }
 
     private static void processExcelData() {
-        try (FileInputStream fis = new FileInputStream(excelFilePath);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            boolean isHeader = true;
-            for (Row row : sheet) {
-                if (isHeader) {
-                    isHeader = false; // Skip header row
-                    continue;
+        // Every finished row is appended to the results log right away; the workbook is patched from the log at the end.
+        // With -Dresume=true rows already in the log of an interrupted run are not sent again
+        Path responseDir = Paths.get(excelFilePath + "_responses");
+        Map<Integer, ResultsLog.Entry> loggedRows;
+        try (ResultsLog resultsLog = ResultsLog.open(Paths.get(excelFilePath + ".results.log"), RESUME);
+             StreamingXlsxReader workbook = new StreamingXlsxReader(new File(excelFilePath));
+             HttpTransport httpTransport = HttpTransport.fromProperties(properties);
+             CurlExecutionEngine engine = CurlExecutionEngine.fromProperties(properties)) {
+            transport = httpTransport;
+            Files.createDirectories(responseDir);
+            if (resultsLog.size() > 0) {
+                LOG.info("Resuming, {} rows already finished.", resultsLog.size());
+            }
+
+            List<CompletableFuture<Void>> pending = new ArrayList<>();
+            boolean[] isHeader = {true};
+            workbook.readSheet(0, row -> {
+                if (isHeader[0]) {
+                    isHeader[0] = false; // Skip header row
+                    return;
                 }
-                Cell curlCell = row.getCell(2); // Assuming cURL command is in column C (index 2)
-                Cell responseCell = row.getCell(5, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK); // Response in column F (index 5)
-                
-                if (curlCell != null) {
+                XlsxCell curlCell = row.getCell(2); // Assuming cURL command is in column C (index 2)
+                int rowNum = row.getRowNum();
+
+                if (curlCell != null && !resultsLog.isFinished(rowNum)) {
                     String curlCommand = curlCell.getStringCellValue();
-                    System.out.println("Processing row " + row.getRowNum() + " - cURL: " + curlCommand);
-                    
+                    LOG.debug("Processing row {} - cURL: {}", rowNum, curlCommand);
+                    Path responseFile = responseDir.resolve("row_" + rowNum + ".json");
+
                     if (!isValidCurlFormat(curlCommand)) {
-                        System.err.println("Invalid cURL format detected at row " + row.getRowNum());
-                        responseCell.setCellValue("Invalid cURL format");
+                        LOG.warn("Invalid cURL format detected at row {}", rowNum);
+                        resultsLog.append(rowNum, 0, ResponseSink.store("Invalid cURL format", responseFile, false, 0));
                     } else {
                         String formattedCurl = formatCurl(curlCommand);
-                        System.out.println("Formatted cURL: " + formattedCurl);
-                        String response = executeApiRequest(formattedCurl);
-                        responseCell.setCellValue(response);
-                        System.out.println("API response written for row " + row.getRowNum());
+                        LOG.debug("Formatted cURL: {}", formattedCurl);
+                        pending.add(engine.submit(CurlExecutionEngine.hostOf(formattedCurl), () -> {
+                            long start = System.nanoTime();
+                            StoredResponse response = executeApiRequest(formattedCurl, responseFile);
+                            resultsLog.append(rowNum, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), response);
+                            return null;
+                        }));
                     }
                 }
+            });
+
+            // A row whose request failed is logged with status 0 and is sent again by the next resumed run
+            for (CompletableFuture<Void> row : pending) {
+                try {
+                    row.join();
+                } catch (CompletionException e) {
+                    LOG.warn("Row not finished: {}", e.getCause());
+                }
+            }
+            loggedRows = resultsLog.getEntries();
+        } catch (IOException e) {
+            LOG.error("Error processing Excel file: {}", e.getMessage());
+            return;
+        }
+
+        // The reader has released the workbook by now, so the patched copy can replace it
+        try {
+            writeResponses(loggedRows);
+        } catch (IOException e) {
+            LOG.error("Error processing Excel file: {}", e.getMessage());
+        }
+    }
+
+    // Single streaming pass over the workbook; responses are read back from their files one row at a time
+    private static void writeResponses(Map<Integer, ResultsLog.Entry> loggedRows) throws IOException {
+        XlsxCellPatcher.patchColumn(new File(excelFilePath), 0, 5, rowNum -> { // Response in column F (index 5)
+            ResultsLog.Entry entry = loggedRows.get(rowNum);
+            if (entry == null) {
+                return null;
             }
-            try (FileOutputStream fos = new FileOutputStream(excelFilePath)) {
-                workbook.write(fos);
-                System.out.println("Excel file updated successfully.");
+            LOG.debug("API response written for row {}", rowNum);
+            return readResponse(entry.getResponseFile());
+        });
+        LOG.info("Excel file updated successfully.");
+    }
+
+    private static String readResponse(String responseFile) {
+        if (responseFile.isEmpty()) {
+            return "Error";
+        }
+        try (Reader reader = Files.newBufferedReader(Paths.get(responseFile), StandardCharsets.UTF_8)) {
+            char[] cell = new char[MAX_CELL_LENGTH];
+            int length = 0;
+            int read;
+            while (length < cell.length && (read = reader.read(cell, length, cell.length - length)) != -1) {
+                length += read;
             }
+            return new String(cell, 0, length);
         } catch (IOException e) {
-            System.err.println("Error processing Excel file: " + e.getMessage());
+            return "Error reading response: " + e.getMessage();
         }
     }
 
@@ -80,86 +168,55 @@ public class ExcelAPIAutomation {
 
     private static String formatCurl(String curlCommand) {
         // Replace placeholders with actual values from the properties file
-        if (curlCommand.contains("{{categories_url}}")) {
-            curlCommand = curlCommand.replace("{{categories_url}}", categoriesUrl);
+        Set<String> unresolved = new TreeSet<>();
+        String formattedCurl = PlaceholderTemplate.compile(curlCommand).render(ExcelAPIAutomation::placeholderValue, unresolved);
+        if (!unresolved.isEmpty()) {
+            LOG.warn("Unresolved placeholders: {}", unresolved);
         }
-        if (curlCommand.contains("{{auth_token}}")) {
-            curlCommand = curlCommand.replace("{{auth_token}}", authToken);
+        return formattedCurl;
+    }
+
+    private static String placeholderValue(String key) {
+        switch (key) {
+            case "categories_url":
+                return categoriesUrl;
+            case "auth_token":
+                return authToken;
+            default:
+                return null;
         }
-        return curlCommand;
     }
 
-    private static String executeApiRequest(String curlCommand) {
+    private static StoredResponse executeApiRequest(String curlCommand, Path responseFile) throws IOException {
         try {
-            RequestSpecification request = RestAssured.given();
-
-            // Extract URL
-            Pattern urlPattern = Pattern.compile("'(https?://[^']+)'");
-            Matcher urlMatcher = urlPattern.matcher(curlCommand);
-            String url = urlMatcher.find() ? urlMatcher.group(1) : "";
-
-            // Extract headers
-            Pattern headerPattern = Pattern.compile("--header '([^:]+): ([^']+)'");
-            Matcher headerMatcher = headerPattern.matcher(curlCommand);
-            while (headerMatcher.find()) {
-                request.header(headerMatcher.group(1), headerMatcher.group(2));
-            }
-
-            // Extract body data
-            Pattern dataPattern = Pattern.compile("--data '([^']+)'");
-            Matcher dataMatcher = dataPattern.matcher(curlCommand);
-            String requestBody = dataMatcher.find() ? dataMatcher.group(1) : "";
-
-            // Determine HTTP method dynamically
-            String method = "GET"; // Default method is GET
-            if (curlCommand.contains("--data")) {
-                method = "POST"; // If data is present, it's likely a POST request
-            }
+            CurlRequest curlRequest = CurlParser.parse(curlCommand);
+            String url = curlRequest.getUrl() != null ? curlRequest.getUrl() : "";
+            String requestBody = curlRequest.getBody();
+            String method = curlRequest.getMethod();
 
             // Print the final request details
-            System.out.println("Request URL: " + url);
-            System.out.println("Request Headers: ");
-            headerMatcher.reset();
-            while (headerMatcher.find()) {
-                System.out.println(headerMatcher.group(1) + ": " + headerMatcher.group(2));
-            }
-            System.out.println("Request Body: " + requestBody);
-            System.out.println("HTTP Method: " + method);
-
-            Response response;
-
-            // Handle different HTTP methods
-            switch (method) {
-                case "POST":
-                    response = request.body(requestBody).post(url);
-                    System.out.println("POST request executed");
-                    break;
-                case "PUT":
-                    response = request.body(requestBody).put(url);
-                    System.out.println("PUT request executed");
-                    break;
-                case "DELETE":
-                    response = request.delete(url);
-                    System.out.println("DELETE request executed");
-                    break;
-                case "PATCH":
-                    response = request.body(requestBody).patch(url);
-                    System.out.println("PATCH request executed");
-                    break;
-                default:
-                    // Default to GET request
-                    response = request.get(url);
-                    System.out.println("GET request executed");
-                    break;
+            LOG.debug("Request URL: {}", url);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Request Headers: ");
+                for (Map.Entry<String, String> header : curlRequest.getHeaders()) {
+                    LOG.debug("{}: {}", header.getKey(), header.getValue());
+                }
             }
+            LOG.debug("Request Body: {}", requestBody);
+            LOG.debug("HTTP Method: {}", method);
+
+            // Pooled keep-alive transport shared by all rows. The body is streamed to the row's response file
+            StoredResponse response = transport.execute(curlRequest, ResponseSink.toFile(responseFile, false, PREVIEW_LENGTH));
+            LOG.debug("{} request executed", method);
 
             // Print the response
-            System.out.println("API Response Status Code: " + response.getStatusCode());
-            System.out.println("API Response Body: " + response.getBody().asString());
-            return response.getBody().asString();
+            LOG.debug("API Response Status Code: {}", response.getStatusCode());
+            LOG.debug("API Response Size: {} bytes, SHA-256 {}", response.getBytes(), response.getSha256());
+            LOG.debug("API Response Body: {}", response.getPreview());
+            return response;
         } catch (Exception e) {
-            System.err.println("Error executing API request: " + e.getMessage());
-            return "Error executing API request: " + e.getMessage();
+            LOG.error("Error executing API request: {}", e.getMessage());
+            return ResponseSink.store("Error executing API request: " + e.getMessage(), responseFile, false, 0);
         }
     }
 }
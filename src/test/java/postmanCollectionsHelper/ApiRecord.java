@@ -0,0 +1,76 @@
+package postmanCollectionsHelper;
+
+import java.util.Arrays;
+
+/**
+ * One extracted request/response pair, the unit stored in an {@link ApiRecordFile}: the request with one of its
+ * saved responses, or with empty response columns when it has none. Texts are kept in full; cutting them down to
+ * fit a cell is left to the renderer.
+ */
+public class ApiRecord {
+    /**
+     * How a column is stored: DICTIONARY for the few distinct values of files, folders, methods and statuses,
+     * TEXT for length-prefixed strings, INT for 32-bit numbers.
+     */
+    public enum Kind { DICTIONARY, TEXT, INT }
+
+    public enum Column {
+        FILE_NAME("fileName", Kind.DICTIONARY),
+        FULL_PATH("fullPath", Kind.TEXT),
+        PARENT_FOLDER("parentFolder", Kind.DICTIONARY),
+        FEATURE_NAME("featureName", Kind.DICTIONARY),
+        METHOD("method", Kind.DICTIONARY),
+        URL("url", Kind.TEXT),
+        REQUEST_BODY("requestBody", Kind.TEXT),
+        CURL("curl", Kind.TEXT),
+        RESPONSE_COUNT("responseCount", Kind.INT),
+        RESPONSE_NAME("responseName", Kind.TEXT),
+        RESPONSE_STATUS("responseStatus", Kind.DICTIONARY),
+        RESPONSE_CODE("responseCode", Kind.DICTIONARY),
+        RESPONSE_HEADERS("responseHeaders", Kind.TEXT),
+        RESPONSE_BODY("responseBody", Kind.TEXT);
+
+        private final String fieldName;
+        private final Kind kind;
+
+        Column(String fieldName, Kind kind) {
+            this.fieldName = fieldName;
+            this.kind = kind;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final String[] texts = new String[COLUMNS.length];
+    private final int[] ints = new int[COLUMNS.length];
+
+    public ApiRecord() {
+        Arrays.fill(texts, "");
+    }
+
+    public ApiRecord set(Column column, String value) {
+        texts[column.ordinal()] = value == null ? "" : value;
+        return this;
+    }
+
+    public ApiRecord set(Column column, int value) {
+        ints[column.ordinal()] = value;
+        return this;
+    }
+
+    public String get(Column column) {
+        return column.getKind() == Kind.INT ? String.valueOf(ints[column.ordinal()]) : texts[column.ordinal()];
+    }
+
+    public int getInt(Column column) {
+        return ints[column.ordinal()];
+    }
+}
@@ -0,0 +1,81 @@
+package postmanCollectionsHelper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Extraction stage: parses the collections once, the same way as {@link CollectionToExcelProcessAll}, and writes
+ * one record per request and saved response to an {@link ApiRecordFile}. {@link ApiRecordRenderer} then produces
+ * the workbook, CSV or JSONL from that file without parsing the collections again. -Dparallel parses files
+ * concurrently.
+ */
+public class ApiRecordExtractor {
+    private static final Logger LOG = LogManager.getLogger(ApiRecordExtractor.class);
+    private static final LatencyHistogram EXTRACT_TIMER = RunMetrics.shared().timer("records.extract");
+    private static final boolean PARALLEL = Boolean.getBoolean("parallel");
+    static final String DEFAULT_RECORDS = "/Users/bs00880/myworkspace/output/API_Records.apirec";
+
+    public static void main(String[] args) throws IOException {
+        String inputFolder = args.length > 0 ? args[0] : "/Users/bs00880/myworkspace/collections";
+        File output = new File(args.length > 1 ? args[1] : DEFAULT_RECORDS);
+        if (extract(inputFolder, output) >= 0) {
+            RunMetrics.shared().report(output.getPath());
+        }
+    }
+
+    /**
+     * Returns the number of records written, or -1 when the folder holds no collections.
+     */
+    public static long extract(String inputFolder, File output) throws IOException {
+        File[] files = new File(inputFolder).listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null || files.length == 0) {
+            LOG.info("No Postman collections found in the folder.");
+            return -1;
+        }
+        File directory = output.getAbsoluteFile().getParentFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+
+        long start = System.nanoTime();
+        long records;
+        try (ApiRecordFile.Writer writer = new ApiRecordFile.Writer(output)) {
+            Consumer<ApiRecord> recordWriter = record -> {
+                try {
+                    writer.add(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            boolean complete = false;
+            try {
+                if (PARALLEL) {
+                    // Parse files concurrently; records are still written in the serial file order
+                    ParallelFileProcessor.process(files, CollectionToExcelProcessAll::readRecords,
+                            (file, fileRecords) -> fileRecords.forEach(recordWriter::accept));
+                } else {
+                    for (File file : files) {
+                        CollectionToExcelProcessAll.readRecords(file, recordWriter);
+                    }
+                }
+                complete = true;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                if (!complete) {
+                    // A partial record file would render as if it were complete
+                    writer.abort();
+                }
+            }
+            records = writer.getRowCount();
+        }
+        EXTRACT_TIMER.recordSince(start);
+        LOG.info("Extracted {} records from {} collections to {}", records, files.length, output);
+        return records;
+    }
+}
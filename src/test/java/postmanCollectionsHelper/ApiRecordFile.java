@@ -0,0 +1,381 @@
+package postmanCollectionsHelper;
+
+import postmanCollectionsHelper.ApiRecord.Column;
+import postmanCollectionsHelper.ApiRecord.Kind;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary columnar file of {@link ApiRecord}s: written once by {@link ApiRecordExtractor} and read memory-mapped by
+ * {@link ApiRecordRenderer}, so trying another output layout re-reads the extracted columns instead of parsing
+ * every collection again.
+ *
+ * Layout: magic, version, row count and directory offset; then the sections of each column, and at the end a
+ * directory of column name, kind and section offsets. DICTIONARY columns store each distinct value once (count,
+ * then length-prefixed UTF-8) and an int id per row, TEXT columns a long offset per row into a section of
+ * length-prefixed UTF-8 values, INT columns an int per row. The reader is safe to use from any number of threads.
+ */
+public class ApiRecordFile {
+    private static final int MAGIC = 0x41504952; // "APIR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    // A single MappedByteBuffer cannot go past 2 GB, larger files are mapped in chunks
+    private static final long CHUNK_SIZE = 1L << 30;
+    private static final Column[] COLUMNS = Column.values();
+
+    private final MappedByteBuffer[] chunks;
+    private final int rows;
+    private final long[] valuesOffset = new long[COLUMNS.length];
+    private final long[] dataOffset = new long[COLUMNS.length];
+    private final String[][] dictionaries = new String[COLUMNS.length][];
+
+    private ApiRecordFile(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, i * CHUNK_SIZE, Math.min(CHUNK_SIZE, size - i * CHUNK_SIZE));
+            }
+            if (size < HEADER_SIZE || getInt(0) != MAGIC) {
+                throw new IOException("Not an API record file: " + file);
+            }
+            if (getInt(4) != VERSION) {
+                throw new IOException("Unsupported API record file version " + getInt(4) + ": " + file);
+            }
+            rows = (int) getLong(8);
+            long directory = getLong(16);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes(directory, (int) (size - directory))));
+            for (Column column : COLUMNS) {
+                String name = in.readUTF();
+                Kind kind = Kind.values()[in.readByte()];
+                if (!name.equals(column.getFieldName()) || kind != column.getKind()) {
+                    throw new IOException("Column " + name + " of " + file + " does not match " + column);
+                }
+                long dictionary = in.readLong();
+                valuesOffset[column.ordinal()] = in.readLong();
+                dataOffset[column.ordinal()] = in.readLong();
+                if (kind == Kind.DICTIONARY) {
+                    dictionaries[column.ordinal()] = readDictionary(dictionary);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps the file; the mapping stays valid without an open file handle.
+     */
+    public static ApiRecordFile open(File file) throws IOException {
+        return new ApiRecordFile(file);
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public String get(Column column, int row) {
+        checkRow(row);
+        int index = column.ordinal();
+        switch (column.getKind()) {
+            case DICTIONARY:
+                return dictionaries[index][getInt(valuesOffset[index] + 4L * row)];
+            case TEXT:
+                long position = dataOffset[index] + getLong(valuesOffset[index] + 8L * row);
+                int length = getInt(position);
+                return length == 0 ? "" : new String(bytes(position + 4, length), StandardCharsets.UTF_8);
+            default:
+                return String.valueOf(getInt(column, row));
+        }
+    }
+
+    public int getInt(Column column, int row) {
+        checkRow(row);
+        if (column.getKind() != Kind.INT) {
+            throw new IllegalArgumentException(column + " is not an INT column");
+        }
+        return getInt(valuesOffset[column.ordinal()] + 4L * row);
+    }
+
+    public ApiRecord read(int row) {
+        ApiRecord record = new ApiRecord();
+        for (Column column : COLUMNS) {
+            if (column.getKind() == Kind.INT) {
+                record.set(column, getInt(column, row));
+            } else {
+                record.set(column, get(column, row));
+            }
+        }
+        return record;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+    }
+
+    private String[] readDictionary(long position) {
+        String[] values = new String[getInt(position)];
+        position += 4;
+        for (int i = 0; i < values.length; i++) {
+            int length = getInt(position);
+            values[i] = new String(bytes(position + 4, length), StandardCharsets.UTF_8);
+            position += 4 + length;
+        }
+        return values;
+    }
+
+    private int getInt(long position) {
+        MappedByteBuffer chunk = chunks[(int) (position / CHUNK_SIZE)];
+        int index = (int) (position % CHUNK_SIZE);
+        return index + 4 <= chunk.limit() ? chunk.getInt(index) : ByteBuffer.wrap(bytes(position, 4)).getInt();
+    }
+
+    private long getLong(long position) {
+        MappedByteBuffer chunk = chunks[(int) (position / CHUNK_SIZE)];
+        int index = (int) (position % CHUNK_SIZE);
+        return index + 8 <= chunk.limit() ? chunk.getLong(index) : ByteBuffer.wrap(bytes(position, 8)).getLong();
+    }
+
+    // Copies through a duplicate, so concurrent readers do not share a buffer position
+    private byte[] bytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int done = 0;
+        while (done < length) {
+            long at = position + done;
+            ByteBuffer chunk = chunks[(int) (at / CHUNK_SIZE)].duplicate();
+            int index = (int) (at % CHUNK_SIZE);
+            int count = Math.min(length - done, chunk.limit() - index);
+            chunk.position(index);
+            chunk.get(bytes, done, count);
+            done += count;
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends records to one spill file per column next to the target and assembles the columns into the target on
+     * close, so memory use is only the dictionaries and write buffers, whatever the number of records.
+     */
+    public static class Writer implements Closeable {
+        private final File file;
+        private final File[] valueSpills = new File[COLUMNS.length];
+        private final File[] dataSpills = new File[COLUMNS.length];
+        private final DataOutputStream[] values = new DataOutputStream[COLUMNS.length];
+        private final DataOutputStream[] data = new DataOutputStream[COLUMNS.length];
+        private final long[] dataLength = new long[COLUMNS.length];
+        // One per column, null for columns without a dictionary; insertion order is id order
+        private final List<Map<String, Integer>> dictionaries = new ArrayList<>(COLUMNS.length);
+        private long rows;
+        private boolean closed;
+
+        public Writer(File file) throws IOException {
+            this.file = file;
+            File directory = file.getAbsoluteFile().getParentFile();
+            try {
+                for (Column column : COLUMNS) {
+                    int index = column.ordinal();
+                    dictionaries.add(column.getKind() == Kind.DICTIONARY ? new LinkedHashMap<>() : null);
+                    String prefix = file.getName() + "." + column.getFieldName() + ".";
+                    valueSpills[index] = File.createTempFile(prefix, ".values", directory);
+                    values[index] = spill(valueSpills[index]);
+                    if (column.getKind() == Kind.TEXT) {
+                        dataSpills[index] = File.createTempFile(prefix, ".data", directory);
+                        data[index] = spill(dataSpills[index]);
+                    }
+                }
+            } catch (IOException e) {
+                try {
+                    closeSpills();
+                    deleteSpills();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+
+        private static DataOutputStream spill(File file) throws IOException {
+            return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        }
+
+        public void add(ApiRecord record) throws IOException {
+            for (Column column : COLUMNS) {
+                int index = column.ordinal();
+                switch (column.getKind()) {
+                    case DICTIONARY:
+                        Map<String, Integer> dictionary = dictionaries.get(index);
+                        String value = record.get(column);
+                        Integer id = dictionary.get(value);
+                        if (id == null) {
+                            id = dictionary.size();
+                            dictionary.put(value, id);
+                        }
+                        values[index].writeInt(id);
+                        break;
+                    case TEXT:
+                        byte[] bytes = record.get(column).getBytes(StandardCharsets.UTF_8);
+                        values[index].writeLong(dataLength[index]);
+                        data[index].writeInt(bytes.length);
+                        data[index].write(bytes);
+                        dataLength[index] += 4 + bytes.length;
+                        break;
+                    default:
+                        values[index].writeInt(record.getInt(column));
+                }
+            }
+            rows++;
+        }
+
+        public long getRowCount() {
+            return rows;
+        }
+
+        /**
+         * Writes the file from the spilled columns. It is built under a temporary name and moved into place once
+         * complete, so a failure leaves an earlier file with the same name as it was.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            File temp = null;
+            boolean moved = false;
+            try {
+                closeSpills();
+                if (rows > Integer.MAX_VALUE) {
+                    throw new IOException("Too many records for one file: " + rows);
+                }
+                temp = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+                try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                    out.write(header(0));
+                    long position = HEADER_SIZE;
+                    ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+                    DataOutputStream directory = new DataOutputStream(directoryBytes);
+                    for (Column column : COLUMNS) {
+                        int index = column.ordinal();
+                        long dictionaryStart = 0;
+                        long dataStart = 0;
+                        if (column.getKind() == Kind.DICTIONARY) {
+                            dictionaryStart = position;
+                            position += out.write(ByteBuffer.wrap(encode(dictionaries.get(index))));
+                        }
+                        long valuesStart = position;
+                        position += append(valueSpills[index], out);
+                        if (column.getKind() == Kind.TEXT) {
+                            dataStart = position;
+                            position += append(dataSpills[index], out);
+                        }
+                        directory.writeUTF(column.getFieldName());
+                        directory.writeByte(column.getKind().ordinal());
+                        directory.writeLong(dictionaryStart);
+                        directory.writeLong(valuesStart);
+                        directory.writeLong(dataStart);
+                    }
+                    out.write(ByteBuffer.wrap(directoryBytes.toByteArray()));
+                    out.write(header(position), 0);
+                }
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                moved = true;
+            } finally {
+                if (temp != null && !moved) {
+                    Files.deleteIfExists(temp.toPath());
+                }
+                deleteSpills();
+            }
+        }
+
+        /**
+         * Drops the records added so far without writing the file, for a run that failed part way.
+         */
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                closeSpills();
+            } finally {
+                deleteSpills();
+            }
+        }
+
+        private ByteBuffer header(long directoryOffset) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(rows).putLong(directoryOffset);
+            header.flip();
+            return header;
+        }
+
+        private static byte[] encode(Map<String, Integer> dictionary) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static long append(File spill, FileChannel out) throws IOException {
+            try (FileChannel in = FileChannel.open(spill.toPath(), StandardOpenOption.READ)) {
+                long size = in.size();
+                for (long done = 0; done < size; ) {
+                    done += in.transferTo(done, size - done, out);
+                }
+                return size;
+            }
+        }
+
+        private void closeSpills() throws IOException {
+            IOException failure = null;
+            for (int i = 0; i < COLUMNS.length; i++) {
+                for (DataOutputStream stream : new DataOutputStream[]{values[i], data[i]}) {
+                    try {
+                        if (stream != null) {
+                            stream.close();
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void deleteSpills() throws IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                for (File spill : new File[]{valueSpills[i], dataSpills[i]}) {
+                    if (spill != null) {
+                        Files.deleteIfExists(spill.toPath());
+                    }
+                }
+            }
+        }
+    }
+}
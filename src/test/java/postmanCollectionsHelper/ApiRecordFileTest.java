@@ -0,0 +1,69 @@
+package postmanCollectionsHelper;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import postmanCollectionsHelper.ApiRecord.Column;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class ApiRecordFileTest {
+
+    @Test
+    public void writesAndReadsRecords() throws IOException {
+        Path directory = Files.createTempDirectory("api-records");
+        File file = directory.resolve("records.apirec").toFile();
+        try {
+            try (ApiRecordFile.Writer writer = new ApiRecordFile.Writer(file)) {
+                writer.add(record("GET", "https://api.example.com/orders", 2));
+                writer.add(record("POST", "https://api.example.com/orders", 1));
+            }
+            ApiRecordFile records = ApiRecordFile.open(file);
+            Assert.assertEquals(records.getRowCount(), 2);
+            Assert.assertEquals(records.get(Column.METHOD, 1), "POST");
+            Assert.assertEquals(records.getInt(Column.RESPONSE_COUNT, 0), 2);
+            Assert.assertEquals(list(directory), new String[]{"records.apirec"});
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void abortKeepsTheEarlierFile() throws IOException {
+        Path directory = Files.createTempDirectory("api-records");
+        File file = directory.resolve("records.apirec").toFile();
+        try {
+            try (ApiRecordFile.Writer writer = new ApiRecordFile.Writer(file)) {
+                writer.add(record("GET", "https://api.example.com/orders", 1));
+            }
+            try (ApiRecordFile.Writer writer = new ApiRecordFile.Writer(file)) {
+                writer.add(record("DELETE", "https://api.example.com/orders/7", 0));
+                writer.abort();
+            }
+            Assert.assertEquals(ApiRecordFile.open(file).get(Column.METHOD, 0), "GET");
+            Assert.assertEquals(list(directory), new String[]{"records.apirec"}, "spill files left behind");
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static ApiRecord record(String method, String url, int responses) {
+        return new ApiRecord().set(Column.METHOD, method).set(Column.URL, url).set(Column.RESPONSE_COUNT, responses);
+    }
+
+    private static String[] list(Path directory) {
+        return directory.toFile().list();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,135 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import postmanCollectionsHelper.ApiRecord.Column;
+import postmanCollectionsHelper.ApiRecord.Kind;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Rendering stage: turns an {@link ApiRecordFile} written by {@link ApiRecordExtractor} into the API Details
+ * workbook of {@link CollectionToExcelProcessAll}, a CSV file or JSON Lines, picked by the output extension
+ * (-Drender.format=xlsx|csv|jsonl for the default output). The workbook sends texts longer than a cell to its
+ * overflow store; CSV and JSONL keep them whole.
+ */
+public class ApiRecordRenderer {
+    private static final Logger LOG = LogManager.getLogger(ApiRecordRenderer.class);
+    private static final LatencyHistogram WRITE_TIMER = RunMetrics.shared().timer("workbook.write");
+    private static final Column[] COLUMNS = Column.values();
+
+    public static void main(String[] args) throws IOException {
+        File records = new File(args.length > 0 ? args[0] : ApiRecordExtractor.DEFAULT_RECORDS);
+        String format = System.getProperty("render.format", "xlsx");
+        File output = new File(args.length > 1 ? args[1] : "/Users/bs00880/myworkspace/output/API_Details_"
+                + ApiRecordRenderer.class.getSimpleName() + CollectionToExcelProcessAll.getDateTime() + "." + format);
+        render(records, output);
+        RunMetrics.shared().report(output.getPath());
+    }
+
+    public static void render(File records, File output) throws IOException {
+        ApiRecordFile file = ApiRecordFile.open(records);
+        String name = output.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xlsx")) {
+            renderXlsx(file, output);
+        } else if (name.endsWith(".csv")) {
+            renderCsv(file, output);
+        } else if (name.endsWith(".jsonl")) {
+            renderJsonl(file, output);
+        } else {
+            throw new IllegalArgumentException("Unknown output format, expected .xlsx, .csv or .jsonl: " + output);
+        }
+        LOG.info("Rendered {} records to {}", file.getRowCount(), output);
+    }
+
+    static void renderXlsx(ApiRecordFile records, File output) throws IOException {
+        SXSSFWorkbook workbook = StreamingWorkbooks.create();
+        OverflowStore overflow = OverflowStore.forWorkbook(output.getPath());
+        Sheet sheet = workbook.createSheet("API Details");
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < CollectionToExcelProcessAll.HEADERS.length; i++) {
+            headerRow.createCell(i).setCellValue(CollectionToExcelProcessAll.HEADERS[i]);
+        }
+        try {
+            for (int row = 0; row < records.getRowCount(); row++) {
+                CollectionToExcelProcessAll.toRow(records.read(row), overflow).writeTo(sheet.createRow(row + 1));
+            }
+        } finally {
+            overflow.close();
+        }
+
+        long writeStart = System.nanoTime();
+        try (FileOutputStream fileOut = new FileOutputStream(output)) {
+            workbook.write(fileOut);
+        }
+        WRITE_TIMER.recordSince(writeStart);
+        workbook.dispose(); // clean up temporary files
+        workbook.close();
+        if (overflow.isUsed()) {
+            LOG.info(overflow.stats());
+        }
+    }
+
+    static void renderCsv(ApiRecordFile records, File output) throws IOException {
+        try (Writer out = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                out.write(i > 0 ? "," : "");
+                out.write(COLUMNS[i].getFieldName());
+            }
+            out.write("\r\n");
+            for (int row = 0; row < records.getRowCount(); row++) {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    out.write(i > 0 ? "," : "");
+                    writeCsvField(out, records.get(COLUMNS[i], row));
+                }
+                out.write("\r\n");
+            }
+        }
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break, and double the quotes inside
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    static void renderJsonl(ApiRecordFile records, File output) throws IOException {
+        try (JsonGenerator out = JsonParseCache.MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            // One object per line instead of the default space between root values
+            out.setRootValueSeparator(null);
+            for (int row = 0; row < records.getRowCount(); row++) {
+                out.writeStartObject();
+                for (Column column : COLUMNS) {
+                    if (column.getKind() == Kind.INT) {
+                        out.writeNumberField(column.getFieldName(), records.getInt(column, row));
+                    } else {
+                        out.writeStringField(column.getFieldName(), records.get(column, row));
+                    }
+                }
+                out.writeEndObject();
+                out.writeRaw('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package postmanCollectionsHelper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Bloom filter of {@link ContentFingerprint}s kept in a memory-mapped file, so it survives between runs and is
+ * paged in on demand instead of being rebuilt. The k bit positions are derived from the two 64-bit halves of the
+ * fingerprint (double hashing), so no extra hashing is needed. Not thread-safe.
+ *
+ * File layout: magic, version, capacity, hash count, bit count, insertions; followed by the bit array.
+ */
+public final class BloomFilterFile implements Closeable {
+    private static final int MAGIC = 0x504d4246; // "PMBF"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final long MAX_BITS = (Integer.MAX_VALUE - HEADER_SIZE) * 8L;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+    private final int hashCount;
+    private final long bitCount;
+
+    private BloomFilterFile(RandomAccessFile file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = buffer.getInt(8) & 0xffffffffL;
+        this.hashCount = buffer.getInt(12);
+        this.bitCount = buffer.getLong(16);
+    }
+
+    /**
+     * Opens an existing filter, or creates one sized for {@code capacity} insertions at the given false-positive
+     * rate. An existing file keeps the sizing it was created with.
+     */
+    public static BloomFilterFile open(Path path, long capacity, double falsePositiveRate) throws IOException {
+        if (Files.exists(path)) {
+            return map(path, false, 0, 0, 0);
+        }
+        if (capacity <= 0 || capacity > 0xffffffffL) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bits = Math.min(MAX_BITS, Math.max(64, (bits + 63) & ~63L));
+        int hashes = (int) Math.max(1, Math.round((double) bits / capacity * Math.log(2)));
+        return map(path, true, capacity, hashes, bits);
+    }
+
+    private static BloomFilterFile map(Path path, boolean create, long capacity, int hashes, long bits) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+        try {
+            long size = create ? HEADER_SIZE + bits / 8 : file.length();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a Bloom filter file: " + path);
+            }
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (create) {
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, (int) capacity).putInt(12, hashes)
+                        .putLong(16, bits).putLong(24, 0);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || HEADER_SIZE + buffer.getLong(16) / 8 != size) {
+                throw new IOException("Not a Bloom filter file, or an unsupported version: " + path);
+            }
+            return new BloomFilterFile(file, buffer);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public boolean mightContain(ContentFingerprint fingerprint) {
+        long combined = fingerprint.getHigh();
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((buffer.get(HEADER_SIZE + (int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+            combined += fingerprint.getLow();
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if any bit changed, i.e. the fingerprint was definitely not in the filter before.
+     */
+    public boolean put(ContentFingerprint fingerprint) {
+        boolean changed = false;
+        long combined = fingerprint.getHigh();
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            int index = HEADER_SIZE + (int) (bit >>> 3);
+            byte current = buffer.get(index);
+            byte updated = (byte) (current | (1 << (bit & 7)));
+            if (current != updated) {
+                buffer.put(index, updated);
+                changed = true;
+            }
+            combined += fingerprint.getLow();
+        }
+        if (changed) {
+            buffer.putLong(24, buffer.getLong(24) + 1);
+        }
+        return changed;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getInsertions() {
+        return buffer.getLong(24);
+    }
+
+    /**
+     * Estimated false-positive rate at the current number of insertions.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * getInsertions() / bitCount), hashCount);
+    }
+
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        file.close();
+    }
+}
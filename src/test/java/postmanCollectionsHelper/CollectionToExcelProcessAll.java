@@ -2,17 +2,28 @@ package postmanCollectionsHelper;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import postmanCollectionsHelper.ApiRecord.Column;
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class CollectionToExcelProcessAll {
+	private static final Logger LOG = LogManager.getLogger(CollectionToExcelProcessAll.class);
+	private static final LatencyHistogram CURL_TIMER = RunMetrics.shared().timer("curl.generate");
+	private static final LatencyHistogram WRITE_TIMER = RunMetrics.shared().timer("workbook.write");
 	private static final int MAX_RESPONSE_LENGTH = 32000;
+	private static final boolean PARALLEL = Boolean.getBoolean("parallel");
+	static final String[] HEADERS = {"File Name","Full Directory Path", "Parent Folder", "Feature Name","Request Method", "Request Body", "cURL",
+			"Response Count", "Response body", "Response headers", "status", "Status code","Response-Status,Body,Headers"};
 	private static Properties envProperties = new Properties();
 
 	public static void main(String[] args) throws IOException {
@@ -38,236 +49,221 @@ public class CollectionToExcelProcessAll {
 		try (InputStream input = new FileInputStream(filePath)) {
 			properties.load(input);
 		} catch (FileNotFoundException e) {
-			System.out.println("Environment properties file not found. Using default values.");
+			LOG.warn("Environment properties file not found. Using default values.");
 		} catch (IOException e) {
-			System.out.println("Error loading environment properties file: " + e.getMessage());
+			LOG.warn("Error loading environment properties file: {}", e.getMessage());
 		}
 		return properties;
 	}
 
-	private static void processPostmanCollections(String inputFolder, String outputExcel) throws IOException {
+	static void processPostmanCollections(String inputFolder, String outputExcel) throws IOException {
 		File folder = new File(inputFolder);
 		File[] files = folder.listFiles((dir, name) -> name.endsWith(".json"));
 		if (files == null || files.length == 0) {
-			System.out.println("No Postman collections found in the folder.");
+			LOG.info("No Postman collections found in the folder.");
 			return;
 		}
 
-		Workbook workbook = new XSSFWorkbook();
+		SXSSFWorkbook workbook = StreamingWorkbooks.create();
 		Sheet sheet = workbook.createSheet("API Details");
 		Row headerRow = sheet.createRow(0);
-		String[] headers = {"File Name","Full Directory Path", "Parent Folder", "Feature Name","Request Method", "Request Body", "cURL",
-				"Response Count", "Response body", "Response headers", "status", "Status code","Response-Status,Body,Headers"};
-
-		for (int i = 0; i < headers.length; i++) {
-			headerRow.createCell(i).setCellValue(headers[i]);
+		for (int i = 0; i < HEADERS.length; i++) {
+			headerRow.createCell(i).setCellValue(HEADERS[i]);
 		}
 
 
-		int rowNum = 1;
-		ObjectMapper objectMapper = new ObjectMapper();
+		int[] rowNum = {1};
+		Consumer<RowData> rowWriter = row -> row.writeTo(sheet.createRow(rowNum[0]++));
 
-		for (File file : files) {
-			JsonNode rootNode = objectMapper.readTree(file);
-			JsonNode itemArray = rootNode.path("item");
-			rowNum = processItems(itemArray, "", "", sheet, rowNum, file.getName(), new HashSet<>());
+		// Full text of cells longer than MAX_RESPONSE_LENGTH, next to the workbook
+		OverflowStore overflow = OverflowStore.forWorkbook(outputExcel);
+		try {
+			if (PARALLEL) {
+				// Parse and transform files concurrently; rows are still written in the serial file order
+				ParallelFileProcessor.<RowData>process(files, (file, rows) -> readRows(file, overflow, rows),
+						(file, rows) -> rows.forEach(rowWriter::accept));
+			} else {
+				for (File file : files) {
+					readRows(file, overflow, rowWriter);
+				}
+			}
+		} finally {
+			overflow.close();
 		}
 
+		long writeStart = System.nanoTime();
 		try (FileOutputStream fileOut = new FileOutputStream(outputExcel)) {
 			workbook.write(fileOut);
 		}
+		WRITE_TIMER.recordSince(writeStart);
+		workbook.dispose(); // clean up temporary files
 		workbook.close();
-		System.out.println("API details exported to " + outputExcel);
+		LOG.info("API details exported to {}", outputExcel);
+		if (overflow.isUsed()) {
+			LOG.info(overflow.stats());
+		}
+		LOG.info(JsonParseCache.shared().stats());
+		RunMetrics.shared().report(outputExcel);
 	}
 
-	private static int processItems(JsonNode items, String parentPath, String parentFolder, Sheet sheet, int rowNum,
-			String fileName, Set<String> uniqueRequests) {
-		Iterator<JsonNode> elements = items.elements();
-		while (elements.hasNext()) {
-			JsonNode item = elements.next();
-			String itemName = item.path("name").asText();
-			JsonNode request = item.path("request");
-
-			if (request.isMissingNode()) {
-				rowNum = processItems(item.path("item"), parentPath + itemName + "/", itemName, sheet, rowNum, fileName, uniqueRequests);
-			} else {
-				//				System.out.println(request.path("url").toString());
-				String fullPath = parentPath + itemName;
-				String featureName = extractFeatureName(request.path("url"));
-				String extractedApiRequest = extractApiRequest(request.path("url"));
-				String curlCommand = generateCurlCommand(request);
-				String requestMethod = request.path("method").asText();
-				String requestBody = extractRequestBody(request.path("url").toString(), request);
-				String requestKey = requestMethod + " " + extractedApiRequest;
-
-				// Extract saved responses with details (status, code, headers, body)
-				List<Map<String, String>> savedResponses = extractSavedResponses(item);
-				int responseCount = savedResponses.size();
-
-
-
-				if (savedResponses.isEmpty()) {
-					// Ensure at least one row even if no saved responses exist
-					Map<String, String> emptyResponse = new HashMap<>();
-					emptyResponse.put("body", "");
-					emptyResponse.put("code", "");
-					emptyResponse.put("status", "");
-					emptyResponse.put("headers", "");
-					savedResponses.add(emptyResponse);
-				}
-				// single row only
-				//					 if (!savedResponses.isEmpty()) {
-				//			                Map<String, String> responseDetails = savedResponses.get(0); // Get only the first response
-				//			                
-				//			                Row row = sheet.createRow(rowNum++);
-				//
-				//			                row.createCell(0).setCellValue(fileName);
-				//			                row.createCell(1).setCellValue(fullPath);
-				//			                row.createCell(2).setCellValue(parentFolder);
-				//			                row.createCell(3).setCellValue(featureName);
-				//			                row.createCell(4).setCellValue(requestMethod);
-				//			                row.createCell(5).setCellValue(requestBody);
-				//			                row.createCell(6).setCellValue(truncateResponse(request.path("url").toString(), curlCommand));
-				//
-				//			                // Extract response details
-				//			                String responseBody = responseDetails.getOrDefault("body", "");
-				//			                String responseHeaders = responseDetails.getOrDefault("headers", "");
-				//			                String responseStatus = responseDetails.getOrDefault("status", "");
-				//			                String responseCode = responseDetails.getOrDefault("code", "");
-				//
-				//			                // Truncate response if necessary
-				//			                responseBody = truncateResponse(request.path("url").toString(), responseBody);
-				//
-				//			                // Summary column
-				//			                String restCombo = responseCode + System.lineSeparator()
-				//			                                 + responseHeaders + System.lineSeparator()
-				//			                                 + responseBody;
-				//			                restCombo = truncateResponse(request.path("url").toString(), restCombo);
-				//
-				//			                row.createCell(7).setCellValue(responseCount);  
-				//			                row.createCell(8).setCellValue(responseBody);
-				//			                row.createCell(9).setCellValue(responseHeaders);
-				//			                row.createCell(10).setCellValue(responseStatus);
-				//			                row.createCell(11).setCellValue(responseCode);
-				//			                row.createCell(12).setCellValue(restCombo);
-				//			            }
-				// Loop through all saved responses instead of picking only the first one
-				for (Map<String, String> responseDetails : savedResponses) {
-					Row row = sheet.createRow(rowNum++);
-
-					row.createCell(0).setCellValue(fileName);
-					row.createCell(1).setCellValue(fullPath);
-					row.createCell(2).setCellValue(parentFolder);
-					row.createCell(3).setCellValue(featureName);
-					row.createCell(4).setCellValue(requestMethod);
-					row.createCell(5).setCellValue(requestBody);
-
-					if (curlCommand != null && curlCommand.length() > MAX_RESPONSE_LENGTH) {
-						List<String> partsOfCurlCommand  = splitString(curlCommand, MAX_RESPONSE_LENGTH);
-						//split text into 13,14
-						int resinexstart=13;
-						for (int i = 0; i < Math.min(2, partsOfCurlCommand.size()); i++) {
-							//				                System.out.println("Part " + (i + 1) + ": " + partsOfResponseBody.get(i));
-
-							row.createCell(resinexstart+i).setCellValue(partsOfCurlCommand.get(i));
-							System.out.println(resinexstart+i);
-						}
-					}
-
-					row.createCell(6).setCellValue(truncateResponse(request.path("url").toString(), curlCommand));
-
-					// Extract response details
-					String responseBody = responseDetails.getOrDefault("body", "");
-					String responseHeaders = responseDetails.getOrDefault("headers", "");
-					String responseStatus = responseDetails.getOrDefault("status", "");
-					String responseCode = responseDetails.getOrDefault("code", "");
-
-
-					if (responseBody != null && responseBody.length() > MAX_RESPONSE_LENGTH) {
-						List<String> partsOfResponseBody  = splitString(responseBody, MAX_RESPONSE_LENGTH);
-						//split text into 15,16,17
-						int responseBodyIndex=15;
-						for (int i = 0; i < Math.min(3, partsOfResponseBody.size()); i++) {
-							//				                System.out.println("Part " + (i + 1) + ": " + partsOfResponseBody.get(i));
-
-							row.createCell(responseBodyIndex+i).setCellValue(partsOfResponseBody.get(i));
-
-						}
-					}
-					
-					String nameofSavedResponse = responseDetails.getOrDefault("name", "");
-					
-					String[] parts = nameofSavedResponse.split("-");
-					row.createCell(21).setCellValue(parts.length > 0 ? parts[0] : "");
-					row.createCell(22).setCellValue(parts.length > 1 ? parts[1] : "");
-					
-					
-					// Truncate response if necessary
-					responseBody = truncateResponse(request.path("url").toString(), responseBody);
-
-					// Summary column
-					String restCombo = responseCode + System.lineSeparator()
-					+ responseHeaders + System.lineSeparator()
-					+ responseBody;
-					restCombo = truncateResponse(request.path("url").toString(), restCombo);
-
-					if (restCombo != null && restCombo.length() > MAX_RESPONSE_LENGTH) {
-						List<String> partsOfRestCombo  = splitString(responseBody, MAX_RESPONSE_LENGTH);
-						//split text into 18,19,20
-						int restComboIndex=18;
-						for (int i = 0; i < Math.min(3, partsOfRestCombo.size()); i++) {
-							//				                System.out.println("Part " + (i + 1) + ": " + partsOfResponseBody.get(i));
-
-							row.createCell(restComboIndex+i).setCellValue(partsOfRestCombo.get(i));
-
-						}
-					}
-
-					row.createCell(7).setCellValue(responseCount);
-					row.createCell(8).setCellValue(responseBody);
-					row.createCell(9).setCellValue(responseHeaders);
-					row.createCell(10).setCellValue(responseStatus);
-					row.createCell(11).setCellValue(responseCode);
-					row.createCell(12).setCellValue(restCombo);
-				}
+	private static void readRows(File file, OverflowStore overflow, Consumer<RowData> rowWriter) throws IOException {
+		readRecords(file, record -> rowWriter.accept(toRow(record, overflow)));
+	}
 
-			}
-		}
-		return rowNum;
+	// Stream the collection item by item instead of loading the whole tree
+	static void readRecords(File file, Consumer<ApiRecord> recordWriter) throws IOException {
+		String fileName = file.getName();
+		Set<String> uniqueRequests = new HashSet<>();
+		PostmanCollectionReader.read(file, item -> processItems(item, recordWriter, fileName, uniqueRequests));
 	}
 
-	// Method to split the large string into chunks of a given size
-	public static List<String> splitString(String input, int chunkSize) {
-		List<String> parts = new ArrayList<>();
-		int length = input.length();
+	private static void processItems(PostmanItem postmanItem, Consumer<ApiRecord> recordWriter, String fileName,
+			Set<String> uniqueRequests) {
+		JsonNode item = postmanItem.getNode();
+		String parentFolder = postmanItem.getParentFolder();
+		JsonNode request = postmanItem.getRequest();
+
+		if (!request.isMissingNode()) {
+			//				System.out.println(request.path("url").toString());
+			String fullPath = postmanItem.getFullPath();
+			JsonNode urlNode = request.path("url");
+			String url = urlNode.isTextual() ? urlNode.asText() : urlNode.path("raw").asText();
+			String featureName = extractFeatureName(urlNode);
+			String extractedApiRequest = extractApiRequest(urlNode);
+			long curlStart = System.nanoTime();
+			String curlCommand = generateCurlCommand(request);
+			CURL_TIMER.recordSince(curlStart);
+			String requestMethod = request.path("method").asText();
+			String requestBody = extractRequestBody(request);
+			String requestKey = requestMethod + " " + extractedApiRequest;
+
+			// Extract saved responses with details (status, code, headers, body)
+			List<Map<String, String>> savedResponses = extractSavedResponses(item);
+			int responseCount = savedResponses.size();
+
+
+
+			if (savedResponses.isEmpty()) {
+				// Ensure at least one row even if no saved responses exist
+				Map<String, String> emptyResponse = new HashMap<>();
+				emptyResponse.put("body", "");
+				emptyResponse.put("code", "");
+				emptyResponse.put("status", "");
+				emptyResponse.put("headers", "");
+				savedResponses.add(emptyResponse);
+			}
+			// single row only
+			//					 if (!savedResponses.isEmpty()) {
+			//			                Map<String, String> responseDetails = savedResponses.get(0); // Get only the first response
+			//			                
+			//			                Row row = sheet.createRow(rowNum++);
+			//
+			//			                row.createCell(0).setCellValue(fileName);
+			//			                row.createCell(1).setCellValue(fullPath);
+			//			                row.createCell(2).setCellValue(parentFolder);
+			//			                row.createCell(3).setCellValue(featureName);
+			//			                row.createCell(4).setCellValue(requestMethod);
+			//			                row.createCell(5).setCellValue(requestBody);
+			//			                row.createCell(6).setCellValue(truncateResponse(request.path("url").toString(), curlCommand));
+			//
+			//			                // Extract response details
+			//			                String responseBody = responseDetails.getOrDefault("body", "");
+			//			                String responseHeaders = responseDetails.getOrDefault("headers", "");
+			//			                String responseStatus = responseDetails.getOrDefault("status", "");
+			//			                String responseCode = responseDetails.getOrDefault("code", "");
+			//
+			//			                // Truncate response if necessary
+			//			                responseBody = truncateResponse(request.path("url").toString(), responseBody);
+			//
+			//			                // Summary column
+			//			                String restCombo = responseCode + System.lineSeparator()
+			//			                                 + responseHeaders + System.lineSeparator()
+			//			                                 + responseBody;
+			//			                restCombo = truncateResponse(request.path("url").toString(), restCombo);
+			//
+			//			                row.createCell(7).setCellValue(responseCount);  
+			//			                row.createCell(8).setCellValue(responseBody);
+			//			                row.createCell(9).setCellValue(responseHeaders);
+			//			                row.createCell(10).setCellValue(responseStatus);
+			//			                row.createCell(11).setCellValue(responseCode);
+			//			                row.createCell(12).setCellValue(restCombo);
+			//			            }
+			// Loop through all saved responses instead of picking only the first one
+			for (Map<String, String> responseDetails : savedResponses) {
+				ApiRecord record = new ApiRecord()
+						.set(Column.FILE_NAME, fileName)
+						.set(Column.FULL_PATH, fullPath)
+						.set(Column.PARENT_FOLDER, parentFolder)
+						.set(Column.FEATURE_NAME, featureName)
+						.set(Column.METHOD, requestMethod)
+						.set(Column.URL, url)
+						.set(Column.REQUEST_BODY, requestBody)
+						.set(Column.CURL, curlCommand)
+						.set(Column.RESPONSE_COUNT, responseCount)
+						.set(Column.RESPONSE_NAME, responseDetails.getOrDefault("name", ""))
+						.set(Column.RESPONSE_STATUS, responseDetails.getOrDefault("status", ""))
+						.set(Column.RESPONSE_CODE, responseDetails.getOrDefault("code", ""))
+						.set(Column.RESPONSE_HEADERS, responseDetails.getOrDefault("headers", ""))
+						.set(Column.RESPONSE_BODY, responseDetails.getOrDefault("body", ""));
+				recordWriter.accept(record);
+			}
 
-		for (int i = 0; i < length; i += chunkSize) {
-			parts.add(input.substring(i, Math.min(length, i + chunkSize)));
 		}
+	}
 
-		return parts;
+	// One row of the API Details sheet; texts longer than a cell keep a preview and go to the overflow store
+	static RowData toRow(ApiRecord record, OverflowStore overflow) {
+		String url = record.get(Column.URL);
+		String responseBody = record.get(Column.RESPONSE_BODY);
+		String responseHeaders = record.get(Column.RESPONSE_HEADERS);
+		String responseCode = record.get(Column.RESPONSE_CODE);
+		String[] parts = record.get(Column.RESPONSE_NAME).split("-");
+
+		String requestBody = truncateResponse(overflow, url, record.get(Column.REQUEST_BODY));
+		String curlCommand = truncateResponse(overflow, url, record.get(Column.CURL));
+		// Summary column, built from the full body so its stored copy is complete too
+		String restCombo = responseCode + System.lineSeparator()
+		+ responseHeaders + System.lineSeparator()
+		+ responseBody;
+		restCombo = truncateResponse(overflow, url, restCombo);
+		responseBody = truncateResponse(overflow, url, responseBody);
+
+		RowData row = new RowData();
+		row.set(0, record.get(Column.FILE_NAME));
+		row.set(1, record.get(Column.FULL_PATH));
+		row.set(2, record.get(Column.PARENT_FOLDER));
+		row.set(3, record.get(Column.FEATURE_NAME));
+		row.set(4, record.get(Column.METHOD));
+		row.set(5, requestBody);
+		row.set(6, curlCommand);
+		row.set(7, record.getInt(Column.RESPONSE_COUNT));
+		row.set(8, responseBody);
+		row.set(9, responseHeaders);
+		row.set(10, record.get(Column.RESPONSE_STATUS));
+		row.set(11, responseCode);
+		row.set(12, restCombo);
+		row.set(21, parts.length > 0 ? parts[0] : "");
+		row.set(22, parts.length > 1 ? parts[1] : "");
+		return row;
 	}
 
 	// Method to print only the first three parts if available
 	public static void printFirstThree(List<String> parts) {
 		for (int i = 0; i < Math.min(3, parts.size()); i++) {
-			System.out.println("Part " + (i + 1) + ": " + parts.get(i));
+			LOG.debug("Part {}: {}", i + 1, parts.get(i));
 		}
 	}
 
 
 
-	private static String generateCurlCommand(JsonNode requestNode) {
+	static String generateCurlCommand(JsonNode requestNode) {
 		String method = requestNode.path("method").asText();
 		JsonNode urlNode = requestNode.path("url");
 		String url = urlNode.path("raw").asText();
 
-		// Replace environment variables in the URL
-		for (String key : envProperties.stringPropertyNames()) {
-			url = url.replace("{{" + key + "}}", envProperties.getProperty(key));
-		}
-
-		StringBuilder curl = new StringBuilder("curl -X ").append(method).append(" \"").append(url).append("\"");
+		StringBuilder curl = new StringBuilder("curl -X ").append(method).append(" \"");
+		// Replace environment variables while appending the URL
+		PlaceholderTemplate.compile(url).renderTo(curl, envProperties::getProperty, null).append("\"");
 
 		// Process headers
 		JsonNode headers = requestNode.path("header");
@@ -316,13 +312,8 @@ public class CollectionToExcelProcessAll {
 	 * Formats JSON string (optional, can be removed if not needed).
 	 */
 	private static String formatJson(String json) {
-		try {
-			ObjectMapper mapper = new ObjectMapper();
-			Object jsonObj = mapper.readValue(json, Object.class);
-			return mapper.writeValueAsString(jsonObj);
-		} catch (Exception e) {
-			return json; // Return original if formatting fails
-		}
+		// Shared content-addressed cache: repeated bodies are only parsed once
+		return JsonParseCache.shared().minify(json);
 	}
 
 
@@ -344,7 +335,7 @@ public class CollectionToExcelProcessAll {
 	}
 
 
-	private static String extractRequestBody(String url, JsonNode requestNode) {
+	private static String extractRequestBody(JsonNode requestNode) {
 		JsonNode body = requestNode.path("body");
 
 		try {
@@ -353,14 +344,14 @@ public class CollectionToExcelProcessAll {
 
 				// If "options" exists, check for language = json
 				if (body.has("options") && "json".equals(body.path("options").path("raw").path("language").asText())) {
-					return rawBody.isEmpty() ? "" : truncateResponse(url,formatJson(rawBody));
+					return rawBody.isEmpty() ? "" : formatJson(rawBody);
 				}
 
 				// If "options" is missing, still extract the raw body
-				return rawBody.isEmpty() ? "" : truncateResponse(url,formatJson(rawBody));
+				return rawBody.isEmpty() ? "" : formatJson(rawBody);
 			}
 		} catch (Exception e) {
-			System.err.println("Error extracting request body: " + e.getMessage());
+			LOG.warn("Error extracting request body: {}", e.getMessage());
 		}
 
 		return "";
@@ -383,7 +374,7 @@ public class CollectionToExcelProcessAll {
 	//        return responses;
 	//    }
 
-	private static List<Map<String, String>> extractSavedResponses(JsonNode itemNode) {
+	static List<Map<String, String>> extractSavedResponses(JsonNode itemNode) {
 		List<Map<String, String>> responses = new ArrayList<>();
 		JsonNode responseArray = itemNode.path("response");
 
@@ -393,7 +384,7 @@ public class CollectionToExcelProcessAll {
 
 				// Extract response body
 				JsonNode bodyNode = responseNode.path("body");
-				responseDetails.put("body", bodyNode.isMissingNode() ? "" : truncateResponse("saved response",bodyNode.asText()));
+				responseDetails.put("body", bodyNode.isMissingNode() ? "" : bodyNode.asText());
 
 				// Extract response code
 				responseDetails.put("code", responseNode.path("code").asText());
@@ -422,11 +413,16 @@ public class CollectionToExcelProcessAll {
 	}
 
 
-	private static String truncateResponse(String url, String response) {
+	// Keeps a preview in the cell and the full text in the overflow store
+	private static String truncateResponse(OverflowStore overflow, String url, String response) {
 
 		if (response != null && response.length() > MAX_RESPONSE_LENGTH) {
-			System.out.println(url+" - - - "+response.length());
-			return response.substring(0, MAX_RESPONSE_LENGTH) + "... [ truncated ]";
+			LOG.debug("{} - - - {}", url, response.length());
+			try {
+				return overflow.cellValue(response, MAX_RESPONSE_LENGTH);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 		return response;
 	}
@@ -2,17 +2,25 @@ package postmanCollectionsHelper;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class CollectionToExcelProcessUnique {
+	private static final Logger LOG = LogManager.getLogger(CollectionToExcelProcessUnique.class);
+	private static final LatencyHistogram CURL_TIMER = RunMetrics.shared().timer("curl.generate");
+	private static final LatencyHistogram WRITE_TIMER = RunMetrics.shared().timer("workbook.write");
 	private static final int MAX_RESPONSE_LENGTH = 32000;
+	private static final boolean PARALLEL = Boolean.getBoolean("parallel");
 	private static Properties envProperties = new Properties();
 
 	public static void main(String[] args) throws IOException {
@@ -37,9 +45,9 @@ public class CollectionToExcelProcessUnique {
 		try (InputStream input = new FileInputStream(filePath)) {
 			properties.load(input);
 		} catch (FileNotFoundException e) {
-			System.out.println("Environment properties file not found. Using default values.");
+			LOG.warn("Environment properties file not found. Using default values.");
 		} catch (IOException e) {
-			System.out.println("Error loading environment properties file: " + e.getMessage());
+			LOG.warn("Error loading environment properties file: {}", e.getMessage());
 		}
 		return properties;
 	}
@@ -48,75 +56,97 @@ public class CollectionToExcelProcessUnique {
 		File folder = new File(inputFolder);
 		File[] files = folder.listFiles((dir, name) -> name.endsWith(".json"));
 		if (files == null || files.length == 0) {
-			System.out.println("No Postman collections found in the folder.");
+			LOG.info("No Postman collections found in the folder.");
 			return;
 		}
 
-		Workbook workbook = new XSSFWorkbook();
+		SXSSFWorkbook workbook = StreamingWorkbooks.create();
 		Sheet sheet = workbook.createSheet("API Details");
 		Row headerRow = sheet.createRow(0);
 		String[] headers = {"File Name","Full Directory Path", "Parent Folder", "Feature Name","Request Method", "Request Body", "cURL",
-				"Response Count", "Response body", "Response headers", "status", "Status code","Response-Status,Body,Headers","cURL13","cURL14","Response body 15","Response body 16","Response body 17","Combine 18","Combine 19","Combine 20"};
+				"Response Count", "Response body", "Response headers", "status", "Status code","Response-Status,Body,Headers"};
 
 		for (int i = 0; i < headers.length; i++) {
 			headerRow.createCell(i).setCellValue(headers[i]);
 		}
 
 
-		int rowNum = 1;
-		ObjectMapper objectMapper = new ObjectMapper();
+		int[] rowNum = {1};
+		Consumer<RowData> rowWriter = row -> row.writeTo(sheet.createRow(rowNum[0]++));
 
-		for (File file : files) {
-			JsonNode rootNode = objectMapper.readTree(file);
-			JsonNode itemArray = rootNode.path("item");
-			rowNum = processItemsForUniqueApiAndResponses(itemArray, "", "", sheet, rowNum, file.getName(), new HashSet<>());
+		// Full text of cells longer than MAX_RESPONSE_LENGTH, next to the workbook
+		OverflowStore overflow = OverflowStore.forWorkbook(outputExcel);
+		try {
+			if (PARALLEL) {
+				// Parse and transform files concurrently; rows are still written in the serial file order
+				ParallelFileProcessor.<RowData>process(files, (file, rows) -> readRows(file, overflow, rows),
+						(file, rows) -> rows.forEach(rowWriter::accept));
+			} else {
+				for (File file : files) {
+					readRows(file, overflow, rowWriter);
+				}
+			}
+		} finally {
+			overflow.close();
 		}
 
+		long writeStart = System.nanoTime();
 		try (FileOutputStream fileOut = new FileOutputStream(outputExcel)) {
 			workbook.write(fileOut);
 		}
+		WRITE_TIMER.recordSince(writeStart);
+		workbook.dispose(); // clean up temporary files
 		workbook.close();
-		System.out.println("API details exported to " + outputExcel);
+		LOG.info("API details exported to {}", outputExcel);
+		if (overflow.isUsed()) {
+			LOG.info(overflow.stats());
+		}
+		LOG.info(JsonParseCache.shared().stats());
+		RunMetrics.shared().report(outputExcel);
+	}
+
+	// Stream the collection item by item instead of loading the whole tree
+	private static void readRows(File file, OverflowStore overflow, Consumer<RowData> rowWriter) throws IOException {
+		String fileName = file.getName();
+		Set<String> uniqueRequests = new HashSet<>();
+		PostmanCollectionReader.read(file, item -> processItemsForUniqueApiAndResponses(item, overflow, rowWriter, fileName, uniqueRequests));
 	}
 
-	private static int processItemsForUniqueApiAndResponses(JsonNode items, String parentPath, String parentFolder, Sheet sheet, int rowNum,
-			String fileName, Set<String> uniqueRequests) {
-		Iterator<JsonNode> elements = items.elements();
-		while (elements.hasNext()) {
-			JsonNode item = elements.next();
-			String itemName = item.path("name").asText();
-			JsonNode request = item.path("request");
+	private static void processItemsForUniqueApiAndResponses(PostmanItem postmanItem, OverflowStore overflow, Consumer<RowData> rowWriter, String fileName,
+			Set<String> uniqueRequests) {
+		JsonNode item = postmanItem.getNode();
+		String parentFolder = postmanItem.getParentFolder();
+		JsonNode request = postmanItem.getRequest();
+
+		if (!request.isMissingNode()) {
+			//				System.out.println(request.path("url").toString());
+			String fullPath = postmanItem.getFullPath();
+			String featureName = extractFeatureName(request.path("url"));
+			String extractedApiRequest = extractApiRequest(request.path("url"));
+			long curlStart = System.nanoTime();
+			String curlCommand = generateCurlCommand(request);
+			CURL_TIMER.recordSince(curlStart);
+			String requestMethod = request.path("method").asText();
+			String requestBody = extractRequestBody(overflow, request.path("url").toString(), request);
+			String requestKey = requestMethod + " " + extractedApiRequest;
+			
+			// Extract saved responses with details (status, code, headers, body)
+			List<Map<String, String>> savedResponses = extractSavedResponses(item);
+			int responseCount = savedResponses.size();
 			
-			if (request.isMissingNode()) {
-				rowNum = processItemsForUniqueApiAndResponses(item.path("item"), parentPath + itemName + "/", itemName, sheet, rowNum, fileName, uniqueRequests);
-			} else {
-				//				System.out.println(request.path("url").toString());
-				String fullPath = parentPath + itemName;
-				String featureName = extractFeatureName(request.path("url"));
-				String extractedApiRequest = extractApiRequest(request.path("url"));
-				String curlCommand = generateCurlCommand(request);
-				String curlCommand2 = curlCommand;
-				String requestMethod = request.path("method").asText();
-				String requestBody = extractRequestBody(request.path("url").toString(), request);
-				String requestKey = requestMethod + " " + extractedApiRequest;
-				
-				// Extract saved responses with details (status, code, headers, body)
-				List<Map<String, String>> savedResponses = extractSavedResponses(item);
-				int responseCount = savedResponses.size();
-				
 //				if (!uniqueRequests.contains(requestKey)) {
 //					uniqueRequests.add(requestKey);
 //					
-					if (savedResponses.isEmpty()) {
-						// Ensure at least one row even if no saved responses exist
-						Map<String, String> emptyResponse = new HashMap<>();
-						emptyResponse.put("body", "");
-						emptyResponse.put("code", "");
-						emptyResponse.put("status", "");
-						emptyResponse.put("headers", "");
-						savedResponses.add(emptyResponse);
-					}
-					// single row only
+				if (savedResponses.isEmpty()) {
+					// Ensure at least one row even if no saved responses exist
+					Map<String, String> emptyResponse = new HashMap<>();
+					emptyResponse.put("body", "");
+					emptyResponse.put("code", "");
+					emptyResponse.put("status", "");
+					emptyResponse.put("headers", "");
+					savedResponses.add(emptyResponse);
+				}
+				// single row only
 //					 if (!savedResponses.isEmpty()) {
 //			                Map<String, String> responseDetails = savedResponses.get(0); // Get only the first response
 //			                
@@ -152,113 +182,62 @@ public class CollectionToExcelProcessUnique {
 //			                row.createCell(11).setCellValue(responseCode);
 //			                row.createCell(12).setCellValue(restCombo);
 //			            }
-					// Loop through all saved responses instead of picking only the first one
-				    for (Map<String, String> responseDetails : savedResponses) {
-				        Row row = sheet.createRow(rowNum++);
-
-				        row.createCell(0).setCellValue(fileName);
-				        row.createCell(1).setCellValue(fullPath);
-				        row.createCell(2).setCellValue(parentFolder);
-				        row.createCell(3).setCellValue(featureName);
-				        row.createCell(4).setCellValue(requestMethod);
-				        row.createCell(5).setCellValue(requestBody);
-				        
-				        if (curlCommand2 != null) {
-				        	List<String> partsOfCurlCommand  = splitString(curlCommand2, MAX_RESPONSE_LENGTH);
-				        	//split text into 13,14
-				        	int resinexstart=13;
-				        	for (int i = 0; i < Math.min(2, partsOfCurlCommand.size()); i++) {
-//				                System.out.println("Part " + (i + 1) + ": " + partsOfResponseBody.get(i));
-				                
-				                row.createCell(resinexstart+i).setCellValue(partsOfCurlCommand.get(i));
-//				                System.out.println(resinexstart+i);
-				            }
-				        }
-				        
-				        row.createCell(6).setCellValue(truncateResponse(request.path("url").toString(), curlCommand));
-
-				        // Extract response details
-				        String responseBody = responseDetails.getOrDefault("body", "");
-				        String responseBody2 = responseDetails.getOrDefault("body", "");
-				        String responseHeaders = responseDetails.getOrDefault("headers", "");
-				        String responseStatus = responseDetails.getOrDefault("status", "");
-				        String responseCode = responseDetails.getOrDefault("code", "");
-
-				        
-				        if (responseBody2 != null) {
-				        	List<String> partsOfResponseBody  = splitString(responseBody2, MAX_RESPONSE_LENGTH);
-				        	//split text into 15,16,17
-				        	int responseBodyIndex=15;
-				        	for (int i = 0; i < Math.min(3, partsOfResponseBody.size()); i++) {
-//				                System.out.println("Part " + (i + 1) + ": " + partsOfResponseBody.get(i));
-				                
-				                row.createCell(responseBodyIndex+i).setCellValue(partsOfResponseBody.get(i));
-				                
-				            }
-				        }
-				        
-				     // Truncate response if necessary
-				        responseBody = truncateResponse(request.path("url").toString(), responseBody);
-				        
-				        // Summary column
-				        String restCombo = responseCode + System.lineSeparator()
-				                             + responseHeaders + System.lineSeparator()
-				                             + responseBody2;
-				        String restCombo2 = restCombo;
-				        restCombo = truncateResponse(request.path("url").toString(), restCombo);
-				        
-				        if (restCombo2 != null) {
-				        	List<String> partsOfRestCombo  = splitString(restCombo2, MAX_RESPONSE_LENGTH);
-				        	//split text into 18,19,20
-				        	int restComboIndex=18;
-				        	for (int i = 0; i < Math.min(3, partsOfRestCombo.size()); i++) {
-//				                System.out.println("Part " + (i + 1) + ": " + partsOfResponseBody.get(i));
-				                
-				                row.createCell(restComboIndex+i).setCellValue(partsOfRestCombo.get(i));
-				                
-				            }
-				        }
-
-				        String nameofSavedResponse = responseDetails.getOrDefault("name", "");
-						
-						String[] parts = nameofSavedResponse.split("_");
-						
-						if(parts.length>0) {
-							row.createCell(21).setCellValue(parts.length > 0 ? parts[0] : "");
-							row.createCell(22).setCellValue(parts.length > 1 ? parts[1] : "");
-						}
-						
-				        row.createCell(7).setCellValue(responseCount);
-				        row.createCell(8).setCellValue(responseBody);
-				        row.createCell(9).setCellValue(responseHeaders);
-				        row.createCell(10).setCellValue(responseStatus);
-				        row.createCell(11).setCellValue(responseCode);
-				        row.createCell(12).setCellValue(restCombo);
-				    }
-				    // this is for unique check
+				// Loop through all saved responses instead of picking only the first one
+			    for (Map<String, String> responseDetails : savedResponses) {
+			        RowData row = new RowData();
+
+			        row.set(0, fileName);
+			        row.set(1, fullPath);
+			        row.set(2, parentFolder);
+			        row.set(3, featureName);
+			        row.set(4, requestMethod);
+			        row.set(5, requestBody);
+			        
+			        row.set(6, truncateResponse(overflow, request.path("url").toString(), curlCommand));
+
+			        // Extract response details
+			        String responseBody = responseDetails.getOrDefault("body", "");
+			        String responseHeaders = responseDetails.getOrDefault("headers", "");
+			        String responseStatus = responseDetails.getOrDefault("status", "");
+			        String responseCode = responseDetails.getOrDefault("code", "");
+
+			        
+			        // Summary column, built from the full body so its stored copy is complete too
+			        String restCombo = responseCode + System.lineSeparator()
+			                             + responseHeaders + System.lineSeparator()
+			                             + responseBody;
+			        restCombo = truncateResponse(overflow, request.path("url").toString(), restCombo);
+
+			        // Truncate response if necessary
+			        responseBody = truncateResponse(overflow, request.path("url").toString(), responseBody);
+
+			        String nameofSavedResponse = responseDetails.getOrDefault("name", "");
+					
+					String[] parts = nameofSavedResponse.split("_");
+					
+					if(parts.length>0) {
+						row.set(21, parts.length > 0 ? parts[0] : "");
+						row.set(22, parts.length > 1 ? parts[1] : "");
+					}
+					
+			        row.set(7, responseCount);
+			        row.set(8, responseBody);
+			        row.set(9, responseHeaders);
+			        row.set(10, responseStatus);
+			        row.set(11, responseCode);
+			        row.set(12, restCombo);
+			        rowWriter.accept(row);
+			    }
+			    // this is for unique check
 //				}
-				
-			}
+			
 		}
-		return rowNum;
 	}
 	
-	// Method to split the large string into chunks of a given size
-    public static List<String> splitString(String input, int chunkSize) {
-        List<String> parts = new ArrayList<>();
-        int length = input.length();
-        
-        for (int i = 0; i < length; i += chunkSize) {
-            parts.add(input.substring(i, Math.min(length, i + chunkSize)));
-        }
-        
-        return parts;
-    }
-
     // Method to print only the first three parts if available
     public static void printFirstThree(List<String> parts) {
         for (int i = 0; i < Math.min(3, parts.size()); i++) {
-            System.out.println("Part " + (i + 1) + ": " + parts.get(i));
+            LOG.debug("Part {}: {}", i + 1, parts.get(i));
         }
     }
 	
@@ -268,12 +247,9 @@ public class CollectionToExcelProcessUnique {
 		JsonNode urlNode = requestNode.path("url");
 		String url = urlNode.path("raw").asText();
 
-		// Replace environment variables in the URL
-		for (String key : envProperties.stringPropertyNames()) {
-			url = url.replace("{{" + key + "}}", envProperties.getProperty(key));
-		}
-
-		StringBuilder curl = new StringBuilder("curl -X ").append(method).append(" \"").append(url).append("\"");
+		StringBuilder curl = new StringBuilder("curl -X ").append(method).append(" \"");
+		// Replace environment variables while appending the URL
+		PlaceholderTemplate.compile(url).renderTo(curl, envProperties::getProperty, null).append("\"");
 
 		// Process headers
 		JsonNode headers = requestNode.path("header");
@@ -322,13 +298,8 @@ public class CollectionToExcelProcessUnique {
 	 * Formats JSON string (optional, can be removed if not needed).
 	 */
 	private static String formatJson(String json) {
-		try {
-			ObjectMapper mapper = new ObjectMapper();
-			Object jsonObj = mapper.readValue(json, Object.class);
-			return mapper.writeValueAsString(jsonObj);
-		} catch (Exception e) {
-			return json; // Return original if formatting fails
-		}
+		// Shared content-addressed cache: repeated bodies are only parsed once
+		return JsonParseCache.shared().minify(json);
 	}
 
 
@@ -350,7 +321,7 @@ public class CollectionToExcelProcessUnique {
 	}
 
 
-	private static String extractRequestBody(String url, JsonNode requestNode) {
+	private static String extractRequestBody(OverflowStore overflow, String url, JsonNode requestNode) {
 		JsonNode body = requestNode.path("body");
 
 		try {
@@ -359,14 +330,14 @@ public class CollectionToExcelProcessUnique {
 
 				// If "options" exists, check for language = json
 				if (body.has("options") && "json".equals(body.path("options").path("raw").path("language").asText())) {
-					return rawBody.isEmpty() ? "" : truncateResponse(url,formatJson(rawBody));
+					return rawBody.isEmpty() ? "" : truncateResponse(overflow, url, formatJson(rawBody));
 				}
 
 				// If "options" is missing, still extract the raw body
-				return rawBody.isEmpty() ? "" : truncateResponse(url,formatJson(rawBody));
+				return rawBody.isEmpty() ? "" : truncateResponse(overflow, url, formatJson(rawBody));
 			}
 		} catch (Exception e) {
-			System.err.println("Error extracting request body: " + e.getMessage());
+			LOG.warn("Error extracting request body: {}", e.getMessage());
 		}
 
 		return "";
@@ -429,11 +400,16 @@ public class CollectionToExcelProcessUnique {
 	}
 
 
-	private static String truncateResponse(String url, String response) {
+	// Keeps a preview in the cell and the full text in the overflow store
+	private static String truncateResponse(OverflowStore overflow, String url, String response) {
 
 		if (response != null && response.length() > MAX_RESPONSE_LENGTH) {
-			System.out.println(url+" - - - "+response.length());
-			return response.substring(0, MAX_RESPONSE_LENGTH) + "... [ truncated ]";
+			LOG.debug("{} - - - {}", url, response.length());
+			try {
+				return overflow.cellValue(response, MAX_RESPONSE_LENGTH);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 		return response;
 	}
@@ -2,17 +2,27 @@ package postmanCollectionsHelper;
 
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class CollectionToExcelProcessor {
+    private static final Logger LOG = LogManager.getLogger(CollectionToExcelProcessor.class);
+    private static final LatencyHistogram CURL_TIMER = RunMetrics.shared().timer("curl.generate");
+    private static final LatencyHistogram WRITE_TIMER = RunMetrics.shared().timer("workbook.write");
+    // Fields that make a request unique, -Dfingerprint.fields (default method,url)
+    private static final RequestFingerprinter FINGERPRINTER = RequestFingerprinter.fromSystemProperties();
     private static final int MAX_RESPONSE_LENGTH = 32000;
+    private static final boolean PARALLEL = Boolean.getBoolean("parallel");
     private static Properties envProperties = new Properties();
 
     public static void main(String[] args) throws IOException {
@@ -38,9 +48,9 @@ public class CollectionToExcelProcessor {
         try (InputStream input = new FileInputStream(filePath)) {
             properties.load(input);
         } catch (FileNotFoundException e) {
-            System.out.println("Environment properties file not found. Using default values.");
+            LOG.warn("Environment properties file not found. Using default values.");
         } catch (IOException e) {
-            System.out.println("Error loading environment properties file: " + e.getMessage());
+            LOG.warn("Error loading environment properties file: {}", e.getMessage());
         }
         return properties;
     }
@@ -49,11 +59,11 @@ public class CollectionToExcelProcessor {
         File folder = new File(inputFolder);
         File[] files = folder.listFiles((dir, name) -> name.endsWith(".json"));
         if (files == null || files.length == 0) {
-            System.out.println("No Postman collections found in the folder.");
+            LOG.info("No Postman collections found in the folder.");
             return;
         }
 
-        Workbook workbook = new XSSFWorkbook();
+        SXSSFWorkbook workbook = StreamingWorkbooks.create();
         Sheet sheet = workbook.createSheet("API Details");
         Row headerRow = sheet.createRow(0);
         String[] headers = {"Full Directory Path", "Parent Folder", "Feature Name", "cURL", "File Name", "Saved Response",
@@ -62,68 +72,89 @@ public class CollectionToExcelProcessor {
             headerRow.createCell(i).setCellValue(headers[i]);
         }
 
-        int rowNum = 1;
-        ObjectMapper objectMapper = new ObjectMapper();
+        int[] rowNum = {1};
+        Consumer<RowData> rowWriter = row -> row.writeTo(sheet.createRow(rowNum[0]++));
 
-        for (File file : files) {
-            JsonNode rootNode = objectMapper.readTree(file);
-            JsonNode itemArray = rootNode.path("item");
-            rowNum = processItems(itemArray, "", "", sheet, rowNum, file.getName(), new HashSet<>());
+        // Full text of cells longer than MAX_RESPONSE_LENGTH, next to the workbook
+        OverflowStore overflow = OverflowStore.forWorkbook(outputExcel);
+        try {
+            if (PARALLEL) {
+                // Parse and transform files concurrently; rows are still written in the serial file order
+                ParallelFileProcessor.<RowData>process(files, (file, rows) -> readRows(file, overflow, rows),
+                        (file, rows) -> rows.forEach(rowWriter::accept));
+            } else {
+                for (File file : files) {
+                    readRows(file, overflow, rowWriter);
+                }
+            }
+        } finally {
+            overflow.close();
         }
 
+        long writeStart = System.nanoTime();
         try (FileOutputStream fileOut = new FileOutputStream(outputExcel)) {
             workbook.write(fileOut);
         }
+        WRITE_TIMER.recordSince(writeStart);
+        workbook.dispose(); // clean up temporary files
         workbook.close();
-        System.out.println("API details exported to " + outputExcel);
+        LOG.info("API details exported to {}", outputExcel);
+        if (overflow.isUsed()) {
+            LOG.info(overflow.stats());
+        }
+        LOG.info(JsonParseCache.shared().stats());
+        RunMetrics.shared().report(outputExcel);
     }
 
-    private static int processItems(JsonNode items, String parentPath, String parentFolder, Sheet sheet, int rowNum,
-                                    String fileName, Set<String> uniqueRequests) {
-        Iterator<JsonNode> elements = items.elements();
-        while (elements.hasNext()) {
-            JsonNode item = elements.next();
-            
-            String itemName = item.path("name").asText();
-            System.out.println("item Name: "+itemName);
-            JsonNode request = item.path("request");
+    // Stream the collection item by item instead of loading the whole tree
+    private static void readRows(File file, OverflowStore overflow, Consumer<RowData> rowWriter) throws IOException {
+        String fileName = file.getName();
+        FingerprintSet uniqueRequests = new FingerprintSet();
+        PostmanCollectionReader.read(file, item -> processItems(item, overflow, rowWriter, fileName, uniqueRequests));
+    }
 
-            if (request.isMissingNode()) {
-                rowNum = processItems(item.path("item"), parentPath + itemName + "/", itemName, sheet, rowNum, fileName, uniqueRequests);
-            } else {
-            	System.out.println(request.path("url").toString());
-                String fullPath = parentPath + itemName;
-                String featureName = extractFeatureName(request.path("url"));
-                String extractedApiRequest = extractApiRequest(request.path("url"));
-                String curlCommand = generateCurlCommand(request);
-                String requestMethod = request.path("method").asText();
-                String requestBody = extractRequestBody(request);
-                String requestKey = requestMethod + " " + extractedApiRequest;
-                List<String> savedResponses = extractSavedResponses(item);
-                int responseCount = savedResponses.size();
-
-                if (!uniqueRequests.contains(requestKey)) {
-                    uniqueRequests.add(requestKey);
-                    if (savedResponses.isEmpty()) {
-                        savedResponses.add(""); // Ensure at least one row
-                    }
-
-                    for (String response : savedResponses) {
-                        Row row = sheet.createRow(rowNum++);
-                        row.createCell(0).setCellValue(fullPath);
-                        row.createCell(1).setCellValue(parentFolder);
-                        row.createCell(2).setCellValue(featureName);
-                        row.createCell(3).setCellValue(curlCommand);
-                        row.createCell(4).setCellValue(fileName);
-                        row.createCell(5).setCellValue(truncateResponse(response));
-                        row.createCell(6).setCellValue(responseCount);
-                        row.createCell(7).setCellValue(requestMethod);
-                        row.createCell(8).setCellValue(requestBody);
-                    }
+    private static void processItems(PostmanItem postmanItem, OverflowStore overflow, Consumer<RowData> rowWriter, String fileName,
+            FingerprintSet uniqueRequests) {
+        JsonNode item = postmanItem.getNode();
+        String parentFolder = postmanItem.getParentFolder();
+        LOG.debug("item Name: {}", postmanItem.getName());
+        JsonNode request = postmanItem.getRequest();
+
+        if (!request.isMissingNode()) {
+            LOG.debug("{}", request.path("url"));
+            String fullPath = postmanItem.getFullPath();
+            String featureName = extractFeatureName(request.path("url"));
+            String extractedApiRequest = extractApiRequest(request.path("url"));
+            long curlStart = System.nanoTime();
+            String curlCommand = generateCurlCommand(request);
+            CURL_TIMER.recordSince(curlStart);
+            String requestMethod = request.path("method").asText();
+            String requestBody = extractRequestBody(request);
+            ContentFingerprint requestKey = FINGERPRINTER.fingerprint(requestMethod, extractedApiRequest, requestBody);
+            List<String> savedResponses = extractSavedResponses(item);
+            int responseCount = savedResponses.size();
+
+            if (!uniqueRequests.contains(requestKey)) {
+                uniqueRequests.add(requestKey);
+                if (savedResponses.isEmpty()) {
+                    savedResponses.add(""); // Ensure at least one row
+                }
+
+                for (String response : savedResponses) {
+                    RowData row = new RowData();
+                    row.set(0, fullPath);
+                    row.set(1, parentFolder);
+                    row.set(2, featureName);
+                    row.set(3, truncateResponse(overflow, curlCommand));
+                    row.set(4, fileName);
+                    row.set(5, truncateResponse(overflow, response));
+                    row.set(6, responseCount);
+                    row.set(7, requestMethod);
+                    row.set(8, truncateResponse(overflow, requestBody));
+                    rowWriter.accept(row);
                 }
             }
         }
-        return rowNum;
     }
 
     private static String generateCurlCommand(JsonNode requestNode) {
@@ -131,12 +162,9 @@ public class CollectionToExcelProcessor {
         JsonNode urlNode = requestNode.path("url");
         String url = urlNode.path("raw").asText();
 
-        // Replace environment variables in the URL
-        for (String key : envProperties.stringPropertyNames()) {
-            url = url.replace("{{" + key + "}}", envProperties.getProperty(key));
-        }
-
-        StringBuilder curl = new StringBuilder("curl -X ").append(method).append(" \"").append(url).append("\"");
+        StringBuilder curl = new StringBuilder("curl -X ").append(method).append(" \"");
+        // Replace environment variables while appending the URL
+        PlaceholderTemplate.compile(url).renderTo(curl, envProperties::getProperty, null).append("\"");
 
         // Process headers
         JsonNode headers = requestNode.path("header");
@@ -185,13 +213,8 @@ public class CollectionToExcelProcessor {
      * Formats JSON string (optional, can be removed if not needed).
      */
     private static String formatJson(String json) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            Object jsonObj = mapper.readValue(json, Object.class);
-            return mapper.writeValueAsString(jsonObj);
-        } catch (Exception e) {
-            return json; // Return original if formatting fails
-        }
+        // Shared content-addressed cache: repeated bodies are only parsed once
+        return JsonParseCache.shared().minify(json);
     }
     
     
@@ -247,11 +270,13 @@ public class CollectionToExcelProcessor {
         return responses;
     }
     
-    private static String truncateResponse(String response) {
-        if (response != null && response.length() > MAX_RESPONSE_LENGTH) {
-            return response.substring(0, MAX_RESPONSE_LENGTH) + "... [truncated]";
+    // Keeps a preview in the cell and the full text in the overflow store
+    private static String truncateResponse(OverflowStore overflow, String response) {
+        try {
+            return overflow.cellValue(response, MAX_RESPONSE_LENGTH);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return response;
     }
 }
 
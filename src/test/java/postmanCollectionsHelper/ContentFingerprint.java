@@ -0,0 +1,112 @@
+package postmanCollectionsHelper;
+
+/**
+ * 128-bit MurmurHash3 (x64_128, seed 0) of a text's UTF-16LE code units, computed in one pass over the chars
+ * without encoding them to bytes. Its two 64-bit lanes feed each other on every block and in the finalizer, so
+ * accidental collisions are negligible and the fingerprint can stand in for the text itself as a cache or dedupe
+ * key. The high half is h1 and the low half h2, as in the reference implementation.
+ */
+public final class ContentFingerprint {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long high;
+    private final long low;
+
+    public ContentFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static ContentFingerprint of(CharSequence text) {
+        long h1 = 0;
+        long h2 = 0;
+        int length = text.length();
+        int i = 0;
+        // Eight chars form one 16-byte block
+        for (; i + 8 <= length; i += 8) {
+            h1 ^= mixK1(chars(text, i, 4));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(chars(text, i + 4, 4));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        // An empty tail half mixes to 0, so both halves can be applied unconditionally
+        int tail = length - i;
+        h1 ^= mixK1(chars(text, i, Math.min(tail, 4)));
+        h2 ^= mixK2(chars(text, i + 4, Math.max(tail - 4, 0)));
+        long byteLength = 2L * length;
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new ContentFingerprint(h1, h2);
+    }
+
+    // Up to four chars as a little-endian long
+    private static long chars(CharSequence text, int start, int count) {
+        long value = 0;
+        for (int c = 0; c < count; c++) {
+            value |= (long) text.charAt(start + c) << (16 * c);
+        }
+        return value;
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    /**
+     * Inverse of {@link #toString()}: 32 hex digits.
+     */
+    public static ContentFingerprint parse(String hex) {
+        if (hex.length() != 32) {
+            throw new IllegalArgumentException("Not a fingerprint: " + hex);
+        }
+        return new ContentFingerprint(Long.parseUnsignedLong(hex.substring(0, 16), 16), Long.parseUnsignedLong(hex.substring(16), 16));
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ContentFingerprint)) return false;
+        ContentFingerprint other = (ContentFingerprint) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
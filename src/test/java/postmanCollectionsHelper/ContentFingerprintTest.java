@@ -0,0 +1,55 @@
+package postmanCollectionsHelper;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class ContentFingerprintTest {
+
+    // MurmurHash3_x64_128, seed 0, of the UTF-16LE bytes; h1 then h2 as big-endian hex
+    @Test
+    public void matchesReferenceVectors() {
+        Assert.assertEquals(ContentFingerprint.of("").toString(), "00000000000000000000000000000000");
+        Assert.assertEquals(ContentFingerprint.of("a").toString(), "96a698500b4e98bdb278c9bfc754677d");
+        Assert.assertEquals(ContentFingerprint.of("hello").toString(), "ee2ee18fe1bfd3877b927262d8c336c4");
+        Assert.assertEquals(ContentFingerprint.of("The quick brown fox jumps over the lazy dog").toString(),
+                "c0026631b551ae4ce75f3e8442567c1c");
+        Assert.assertEquals(ContentFingerprint.of("GET_https://api.example.com/orders").toString(),
+                "1270bd415a062b319fc8cc09e9f3e160");
+    }
+
+    @Test
+    public void parsesItsOwnText() {
+        ContentFingerprint fingerprint = ContentFingerprint.of("POST_https://api.example.com/orders");
+        Assert.assertEquals(ContentFingerprint.parse(fingerprint.toString()), fingerprint);
+    }
+
+    // Inputs one char apart, in the first block, the last block or the tail, flip about half of both lanes' bits
+    @Test
+    public void spreadsNearbyInputs() {
+        String base = "GET_https://api.example.com/orders/000000";
+        Set<ContentFingerprint> seen = new HashSet<>();
+        long highBits = 0;
+        long lowBits = 0;
+        int pairs = 0;
+        ContentFingerprint original = ContentFingerprint.of(base);
+        for (int position = 0; position < base.length(); position++) {
+            for (int bit = 0; bit < 16; bit++) {
+                char[] chars = base.toCharArray();
+                chars[position] ^= (char) (1 << bit);
+                ContentFingerprint changed = ContentFingerprint.of(new String(chars));
+                Assert.assertTrue(seen.add(changed), "collision at char " + position + " bit " + bit);
+                int high = Long.bitCount(original.getHigh() ^ changed.getHigh());
+                int low = Long.bitCount(original.getLow() ^ changed.getLow());
+                Assert.assertTrue(high > 8 && low > 8, "char " + position + " bit " + bit + ": " + high + "/" + low);
+                highBits += high;
+                lowBits += low;
+                pairs++;
+            }
+        }
+        Assert.assertEquals((double) highBits / pairs, 32, 1.5);
+        Assert.assertEquals((double) lowBits / pairs, 32, 1.5);
+    }
+}
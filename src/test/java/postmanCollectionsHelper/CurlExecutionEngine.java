@@ -0,0 +1,127 @@
+package postmanCollectionsHelper;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs API calls concurrently on a fixed pool with a separate concurrency limit per host.
+ * Calls above a host's limit wait in that host's queue instead of holding a pool thread, so thousands of
+ * rows can be submitted at once without a thread per row and one slow service cannot starve the others.
+ *
+ * Limits are read from config.properties, keyed on the service entries already in that file:
+ * <pre>
+ * catalog_ms=localhost:8010
+ * concurrency.catalog_ms=8      # limit for localhost:8010
+ * concurrency.default=4         # hosts without their own limit
+ * concurrency.total=32          # pool size
+ * </pre>
+ */
+public class CurlExecutionEngine implements AutoCloseable {
+    private static final String CONCURRENCY_PREFIX = "concurrency.";
+    private static final Pattern HOST_PATTERN = Pattern.compile("https?://([^/?#'\"\\s]+)");
+
+    private final ExecutorService executor;
+    private final Map<String, Integer> hostLimits;
+    private final int defaultHostLimit;
+    private final Map<String, HostLane> lanes = new HashMap<>();
+
+    private static class HostLane {
+        private final int limit;
+        private final Deque<Runnable> waiting = new ArrayDeque<>();
+        private int active;
+
+        HostLane(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    public CurlExecutionEngine(int totalConcurrency, Map<String, Integer> hostLimits, int defaultHostLimit) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, totalConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "curl-exec-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hostLimits = hostLimits;
+        this.defaultHostLimit = Math.max(1, defaultHostLimit);
+    }
+
+    public static CurlExecutionEngine fromProperties(Properties properties) {
+        Map<String, Integer> hostLimits = hostLimits(properties);
+        int total = Integer.parseInt(properties.getProperty(CONCURRENCY_PREFIX + "total", "32").trim());
+        int perHost = Integer.parseInt(properties.getProperty(CONCURRENCY_PREFIX + "default", "4").trim());
+        return new CurlExecutionEngine(total, hostLimits, perHost);
+    }
+
+    // Maps the host of every service with a concurrency.<service> entry to its limit
+    public static Map<String, Integer> hostLimits(Properties properties) {
+        Map<String, Integer> hostLimits = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(CONCURRENCY_PREFIX)) continue;
+            String host = properties.getProperty(key.substring(CONCURRENCY_PREFIX.length()));
+            if (host != null) {
+                hostLimits.put(host.trim(), Integer.parseInt(properties.getProperty(key).trim()));
+            }
+        }
+        return hostLimits;
+    }
+
+    // Host and port of the first http(s) URL in a cURL command, e.g. "localhost:8010"
+    public static String hostOf(String curl) {
+        Matcher matcher = HOST_PATTERN.matcher(curl);
+        return matcher.find() ? matcher.group(1) : "";
+    }
+
+    public <R> CompletableFuture<R> submit(String host, Callable<R> call) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        HostLane lane = laneFor(host);
+        Runnable task = () -> {
+            try {
+                result.complete(call.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                release(lane);
+            }
+        };
+        synchronized (lane) {
+            if (lane.active < lane.limit) {
+                lane.active++;
+                executor.execute(task);
+            } else {
+                lane.waiting.add(task);
+            }
+        }
+        return result;
+    }
+
+    private synchronized HostLane laneFor(String host) {
+        return lanes.computeIfAbsent(host, h -> new HostLane(hostLimits.getOrDefault(h, defaultHostLimit)));
+    }
+
+    private void release(HostLane lane) {
+        synchronized (lane) {
+            Runnable next = lane.waiting.poll();
+            if (next != null) {
+                executor.execute(next);
+            } else {
+                lane.active--;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
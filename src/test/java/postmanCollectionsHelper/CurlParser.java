@@ -0,0 +1,259 @@
+package postmanCollectionsHelper;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass cURL tokenizer. Splits the command into words with shell quoting rules ('...', "...", backslash
+ * escapes and line continuations) and maps the supported options onto a {@link CurlRequest}:
+ * -X/--request, -H/--header, -d/--data/--data-raw/--data-binary/--data-urlencode, -L/--location and --url.
+ * Other options that take a value (-u, -o, -F, ...) are skipped together with it, so the value is never taken
+ * for the URL. Grouped short options such as -sSL or -sXPOST are split up first, the way cURL reads them.
+ *
+ * Parsed requests are cached by the fingerprint of the command text, so re-running the same sheet does not parse
+ * the rows again. The cache is bounded by entries and by the total length of the cached bodies.
+ */
+public class CurlParser {
+    private static final int MAX_CACHED_REQUESTS = 10000;
+    private static final long MAX_CACHED_BODY_CHARS = 32L << 20;
+
+    // Options read by the parser whose value is the next word
+    private static final Set<String> PARSED_OPTIONS_WITH_VALUE = new HashSet<>(Arrays.asList(
+            "-X", "--request", "-H", "--header", "-d", "--data", "--data-raw", "--data-binary", "--data-ascii",
+            "--data-urlencode", "--url"));
+
+    // Other cURL options whose value is the next word
+    private static final Set<String> OPTIONS_WITH_VALUE = new HashSet<>(Arrays.asList(
+            "-A", "--user-agent", "-b", "--cookie", "-c", "--cookie-jar", "-C", "--continue-at", "-D", "--dump-header",
+            "-e", "--referer", "-E", "--cert", "-F", "--form", "--form-string", "-K", "--config", "-m", "--max-time",
+            "-o", "--output", "-r", "--range", "-T", "--upload-file", "-u", "--user", "-U", "--proxy-user",
+            "-w", "--write-out", "-x", "--proxy", "-y", "--speed-time", "-Y", "--speed-limit", "-z", "--time-cond",
+            "--cacert", "--capath", "--cert-type", "--ciphers", "--connect-timeout", "--connect-to", "--dns-servers",
+            "--interface", "--key", "--key-type", "--limit-rate", "--local-port", "--max-filesize", "--max-redirs",
+            "--noproxy", "--oauth2-bearer", "--pass", "--proxy-header", "--resolve", "--retry", "--retry-delay",
+            "--retry-max-time", "--unix-socket"));
+
+    // Access ordered, eldest first
+    private static final Map<ContentFingerprint, CurlRequest> CACHE = new LinkedHashMap<>(256, 0.75f, true);
+    private static long cachedBodyChars;
+
+    public static CurlRequest parse(String curl) {
+        ContentFingerprint key = ContentFingerprint.of(curl);
+        synchronized (CACHE) {
+            CurlRequest cached = CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        CurlRequest request = parseUncached(curl);
+        synchronized (CACHE) {
+            CurlRequest previous = CACHE.put(key, request);
+            cachedBodyChars += request.getBody().length() - (previous == null ? 0 : previous.getBody().length());
+            Iterator<CurlRequest> eldest = CACHE.values().iterator();
+            while (CACHE.size() > MAX_CACHED_REQUESTS || cachedBodyChars > MAX_CACHED_BODY_CHARS) {
+                cachedBodyChars -= eldest.next().getBody().length();
+                eldest.remove();
+            }
+        }
+        return request;
+    }
+
+    public static CurlRequest parseUncached(String curl) {
+        List<String> words = expandShortOptions(tokenize(curl));
+        String method = null;
+        String url = null;
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        StringBuilder body = null;
+        boolean followRedirects = false;
+
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            switch (word) {
+                case "curl":
+                    break;
+                case "-X":
+                case "--request":
+                    method = valueOf(words, ++i, word).toUpperCase();
+                    break;
+                case "-H":
+                case "--header":
+                    String header = valueOf(words, ++i, word);
+                    int colon = header.indexOf(':');
+                    if (colon > 0) {
+                        headers.add(CurlRequest.header(header.substring(0, colon).trim(), header.substring(colon + 1).trim()));
+                    }
+                    break;
+                case "-d":
+                case "--data":
+                case "--data-raw":
+                case "--data-binary":
+                case "--data-ascii":
+                case "--data-urlencode":
+                    // Repeated data options are joined with '&' like cURL does
+                    String data = valueOf(words, ++i, word);
+                    if (word.equals("--data-urlencode")) {
+                        data = urlEncodeData(data);
+                    }
+                    body = body == null ? new StringBuilder(data) : body.append('&').append(data);
+                    break;
+                case "-L":
+                case "--location":
+                    followRedirects = true;
+                    break;
+                case "--url":
+                    url = valueOf(words, ++i, word);
+                    break;
+                default:
+                    if (OPTIONS_WITH_VALUE.contains(word)) {
+                        i++;
+                    } else if (!word.startsWith("-") && url == null) {
+                        url = word;
+                    }
+            }
+        }
+
+        if (method == null) {
+            method = body != null ? "POST" : "GET";
+        }
+        return new CurlRequest(method, url, headers, body == null ? "" : body.toString(), followRedirects);
+    }
+
+    /**
+     * Splits grouped short options into one word each: -sSL becomes -s -S -L. A letter that takes a value ends
+     * the group and the rest of the word is its value, so -sXPOST becomes -s -X POST and -XPOST becomes -X POST.
+     * Option values are left as they are.
+     */
+    static List<String> expandShortOptions(List<String> words) {
+        List<String> expanded = new ArrayList<>(words.size() + 4);
+        boolean valueNext = false;
+        for (String word : words) {
+            if (valueNext || word.length() <= 2 || word.charAt(0) != '-' || word.charAt(1) == '-') {
+                expanded.add(word);
+                valueNext = !valueNext && takesValue(word);
+                continue;
+            }
+            valueNext = false;
+            for (int c = 1; c < word.length(); c++) {
+                String option = "-" + word.charAt(c);
+                expanded.add(option);
+                if (takesValue(option)) {
+                    if (c + 1 < word.length()) {
+                        expanded.add(word.substring(c + 1));
+                    } else {
+                        valueNext = true;
+                    }
+                    break;
+                }
+            }
+        }
+        return expanded;
+    }
+
+    private static boolean takesValue(String option) {
+        return PARSED_OPTIONS_WITH_VALUE.contains(option) || OPTIONS_WITH_VALUE.contains(option);
+    }
+
+    private static String valueOf(List<String> words, int index, String option) {
+        if (index >= words.size()) {
+            throw new IllegalArgumentException("Missing value for cURL option " + option);
+        }
+        return words.get(index);
+    }
+
+    // "content" and "=content" send the content encoded, "name=content" keeps the name as it is
+    private static String urlEncodeData(String data) {
+        int equals = data.indexOf('=');
+        if (equals < 0) {
+            return urlEncode(data);
+        }
+        String name = data.substring(0, equals);
+        return (name.isEmpty() ? "" : name + "=") + urlEncode(data.substring(equals + 1));
+    }
+
+    // Percent-encodes everything but the unreserved characters, as cURL does
+    private static String urlEncode(String text) {
+        try {
+            return URLEncoder.encode(text, "UTF-8").replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("UTF-8 not available", e);
+        }
+    }
+
+    static List<String> tokenize(String curl) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean inWord = false;
+        int length = curl.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = curl.charAt(i);
+            if (c == '\'') {
+                // Single quotes: everything up to the closing quote is literal
+                int end = curl.indexOf('\'', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated ' quote in cURL command");
+                }
+                word.append(curl, i + 1, end);
+                inWord = true;
+                i = end;
+            } else if (c == '"') {
+                i = readDoubleQuoted(curl, i + 1, word);
+                inWord = true;
+            } else if (c == '\\' && i + 1 < length) {
+                char next = curl.charAt(++i);
+                if (next == '\r' && i + 1 < length && curl.charAt(i + 1) == '\n') {
+                    i++;
+                } else if (next != '\n') {
+                    word.append(next);
+                    inWord = true;
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    // Returns the index of the closing quote; inside "..." a backslash only escapes " \ $ ` and newline
+    private static int readDoubleQuoted(String curl, int start, StringBuilder word) {
+        int length = curl.length();
+        for (int i = start; i < length; i++) {
+            char c = curl.charAt(i);
+            if (c == '"') {
+                return i;
+            }
+            if (c == '\\' && i + 1 < length) {
+                char next = curl.charAt(i + 1);
+                if (next == '"' || next == '\\' || next == '$' || next == '`') {
+                    word.append(next);
+                    i++;
+                    continue;
+                }
+                if (next == '\n') {
+                    i++;
+                    continue;
+                }
+            }
+            word.append(c);
+        }
+        throw new IllegalArgumentException("Unterminated \" quote in cURL command");
+    }
+}
@@ -0,0 +1,51 @@
+package postmanCollectionsHelper;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CurlParserTest {
+
+    @Test
+    public void skipsValuesOfOptionsBeforeTheUrl() {
+        CurlRequest request = CurlParser.parseUncached("curl -u user:pass -o out.json -A 'agent 1.0'"
+                + " --max-time 30 https://api.example.com/orders -H 'Accept: application/json'");
+        Assert.assertEquals(request.getUrl(), "https://api.example.com/orders");
+        Assert.assertEquals(request.getMethod(), "GET");
+        Assert.assertEquals(request.getHeader("Accept"), "application/json");
+    }
+
+    @Test
+    public void encodesDataUrlencodeValues() {
+        CurlRequest request = CurlParser.parseUncached("curl --data-urlencode 'q=a b&c~*' --data-urlencode '=x/y'"
+                + " -d plain=1 https://api.example.com/search");
+        Assert.assertEquals(request.getUrl(), "https://api.example.com/search");
+        Assert.assertEquals(request.getMethod(), "POST");
+        Assert.assertEquals(request.getBody(), "q=a%20b%26c~%2A&x%2Fy&plain=1");
+    }
+
+    @Test
+    public void expandsGroupedShortOptions() {
+        Assert.assertTrue(CurlParser.parseUncached("curl -sSL https://api.example.com/a").isFollowRedirects());
+        Assert.assertTrue(CurlParser.parseUncached("curl -Ls https://api.example.com/a").isFollowRedirects());
+        Assert.assertFalse(CurlParser.parseUncached("curl -sS https://api.example.com/a").isFollowRedirects());
+
+        CurlRequest request = CurlParser.parseUncached("curl -sLXPUT -kHAccept:text/plain -sd '-sL' https://api.example.com/b");
+        Assert.assertEquals(request.getMethod(), "PUT");
+        Assert.assertEquals(request.getHeader("Accept"), "text/plain");
+        Assert.assertEquals(request.getBody(), "-sL");
+        Assert.assertEquals(request.getUrl(), "https://api.example.com/b");
+        Assert.assertTrue(request.isFollowRedirects());
+
+        Assert.assertEquals(CurlParser.parseUncached("curl -XDELETE -su user:pw https://api.example.com/c").getUrl(),
+                "https://api.example.com/c");
+    }
+
+    @Test
+    public void cachesByCommandText() {
+        String curl = "curl -X PATCH 'https://api.example.com/items/7' --data-raw '{\"n\":7}'";
+        CurlRequest first = CurlParser.parse(curl);
+        Assert.assertSame(CurlParser.parse(curl), first);
+        Assert.assertNotSame(CurlParser.parse(curl + " -L"), first);
+        Assert.assertEquals(first.getBody(), "{\"n\":7}");
+    }
+}
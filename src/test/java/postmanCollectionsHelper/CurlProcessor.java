@@ -1,18 +1,24 @@
 package postmanCollectionsHelper;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import io.restassured.RestAssured;
-import io.restassured.http.ContentType;
-import io.restassured.response.Response;
+import postmanCollectionsHelper.ResponseSink.StoredResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.regex.*;
+import java.util.concurrent.CompletableFuture;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class CurlProcessor {
+    private static final Logger LOG = LogManager.getLogger(CurlProcessor.class);
     private static Properties properties = new Properties();
     private static String CONFIGFILE="config.properties";
+    private static final int PREVIEW_LENGTH = 500;
+    private static HttpTransport transport;
 
     public static void main(String[] args) throws Exception {
         loadProperties(CONFIGFILE);
@@ -21,7 +27,7 @@ public class CurlProcessor {
         
         String inputNames = getSheetNamesFromFile("input.xlsx");
         setPropertyValue("sheet_names", inputNames);
-        System.out.println("sheet names: "+inputNames);
+        LOG.info("sheet names: {}", inputNames);
     }
 
    
@@ -31,7 +37,7 @@ public class CurlProcessor {
         try (InputStream input = new FileInputStream(filePath)) {
             properties.load(input);
         }
-        System.out.println("Loaded properties: " + properties);
+        LOG.debug("Loaded properties: {}", properties);
     }
 
     // Method to get a value by key from the properties
@@ -47,7 +53,7 @@ public class CurlProcessor {
         try {
             saveProperties(CONFIGFILE);
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Error saving properties: {}", CONFIGFILE, e);
         }
     }
 
@@ -68,26 +74,19 @@ public class CurlProcessor {
                 writer.newLine();
             }
         }
-        System.out.println("Properties saved in alphabetical order: " + sortedProperties);
+        LOG.debug("Properties saved in alphabetical order: {}", sortedProperties);
     }
     private static String getSheetNamesFromFile(String inputFile) throws Exception {
-        Workbook workbook = new XSSFWorkbook(new FileInputStream(inputFile));
-        List<String> sheetNames = new ArrayList<>();
-
-        // Loop through all sheets and add their names
-        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-            Sheet sheet = workbook.getSheetAt(i);
-            sheetNames.add(sheet.getSheetName()); // Get actual sheet name
-        }
-
-        workbook.close();
+        // Names come from workbook.xml only, none of the sheets is parsed
+        List<String> sheetNames = StreamingXlsxReader.sheetNames(new File(inputFile));
 
         // Return sheet names as a comma-separated string
         return String.join(",", sheetNames);
     }
 
     private static void processExcel(String inputFile, String outputFile) throws Exception {
-        Workbook workbook = new XSSFWorkbook(new FileInputStream(inputFile));
+        // Input sheets are streamed row by row instead of loading the whole workbook
+        StreamingXlsxReader workbook = new StreamingXlsxReader(new File(inputFile));
         Workbook outputWorkbook = new XSSFWorkbook();
         Sheet outputSheet = outputWorkbook.createSheet("Results");
 
@@ -95,51 +94,72 @@ public class CurlProcessor {
         header.createCell(0).setCellValue("Sheet Name");
         header.createCell(1).setCellValue("Request cURL");
         header.createCell(2).setCellValue("Response File Path");
+        header.createCell(3).setCellValue("Status Code");
+        header.createCell(4).setCellValue("Response Size (bytes)");
+        header.createCell(5).setCellValue("Response SHA-256");
+        header.createCell(6).setCellValue("Response Preview");
 
-        int rowNum = 1;
+        int[] rowNum = {1};
         String[] sheetNames = properties.getProperty("sheetNames").split(",");
 
         // Create the response directory once for the entire execution
         String responseDirPath = createResponseDirectory();
 
+        // Requests run concurrently; the response details are filled into their output row once the call finished
+        List<Row> resultRows = new ArrayList<>();
+        List<CompletableFuture<StoredResponse>> storedResponses = new ArrayList<>();
+        transport = HttpTransport.fromProperties(properties);
+        CurlExecutionEngine engine = CurlExecutionEngine.fromProperties(properties);
+
         for (String sheetName : sheetNames) {
-            Sheet sheet = workbook.getSheet(sheetName.trim());
-            if (sheet == null) continue;
+            if (!workbook.hasSheet(sheetName.trim())) continue;
 
-            System.out.println("Processing sheet: " + sheetName);
+            LOG.info("Processing sheet: {}", sheetName);
 
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                Cell cell = row.getCell(3); // Assuming cURL request is in column C
+            workbook.readSheet(sheetName.trim(), row -> {
+                int i = row.getRowNum();
+                if (i == 0) return; // Skip header row
+                StreamingXlsxReader.XlsxCell cell = row.getCell(3); // Assuming cURL request is in column C
                 if (cell == null || cell.getStringCellValue().trim().isEmpty()) {
-                    System.out.println("Skipping empty cURL cell at row: " + i);
-                    continue; // Skip if the cell is empty
+                    LOG.debug("Skipping empty cURL cell at row: {}", i);
+                    return; // Skip if the cell is empty
                 }
                 
                 String curlRequest = cell.getStringCellValue();
-                System.out.println("Original cURL: " + truncateString(curlRequest));
+                LOG.debug("Original cURL: {}", () -> truncateString(curlRequest));
 
                 String processedCurl = replacePlaceholders(curlRequest);
-                System.out.println("Processed cURL: " + truncateString(processedCurl));
+                LOG.debug("Processed cURL: {}", () -> truncateString(processedCurl));
 
-                String response = validateAndExecuteCurl(processedCurl);
-                System.out.println("Response: " + truncateString(response));
+                CompletableFuture<StoredResponse> storedResponse = engine.submit(CurlExecutionEngine.hostOf(processedCurl), () -> {
+                    // Stream the response into a JSON file in the dynamic directory
+                    StoredResponse response = validateAndExecuteCurl(processedCurl, responseFile(sheetName, i, responseDirPath));
+                    LOG.debug("Response: {}", response.getPreview());
+                    LOG.debug("Response saved to: {}", response.getFile());
+                    return response;
+                });
 
-                // Save the response to a JSON file in the dynamic directory
-                String responseFilePath = writeResponseToFile(response, sheetName, i, responseDirPath);
-
-                Row outputRow = outputSheet.createRow(rowNum++);
+                Row outputRow = outputSheet.createRow(rowNum[0]++);
                 outputRow.createCell(0).setCellValue(sheetName);
                 outputRow.createCell(1).setCellValue(processedCurl); // Full cURL in Excel
-                outputRow.createCell(2).setCellValue(responseFilePath); // Path to the response JSON file
-            }
+                resultRows.add(outputRow);
+                storedResponses.add(storedResponse);
+            });
         }
         workbook.close();
+
+        for (int i = 0; i < resultRows.size(); i++) {
+            writeResult(resultRows.get(i), storedResponses.get(i).join());
+        }
+        engine.close();
+        transport.close();
+        long writeStart = System.nanoTime();
         try (FileOutputStream outputStream = new FileOutputStream(outputFile)) {
             outputWorkbook.write(outputStream);
         }
+        RunMetrics.shared().timer("workbook.write").recordSince(writeStart);
         outputWorkbook.close();
+        RunMetrics.shared().report(outputFile);
     }
 
 
@@ -151,79 +171,61 @@ public class CurlProcessor {
     }
 
     private static String replacePlaceholders(String curl) {
-        for (String key : properties.stringPropertyNames()) {
-            curl = curl.replace("{{" + key + "}}", properties.getProperty(key));
+        Set<String> unresolved = new TreeSet<>();
+        String processedCurl = PlaceholderTemplate.compile(curl).render(properties::getProperty, unresolved);
+        if (!unresolved.isEmpty()) {
+            LOG.warn("Unresolved placeholders: {}", unresolved);
         }
-        return curl;
+        return processedCurl;
     }
 
-    private static String validateAndExecuteCurl(String curl) {
+    // Only the file path, size, hash and a short preview of the body go into the result sheet
+    private static void writeResult(Row outputRow, StoredResponse response) {
+        outputRow.createCell(2).setCellValue(response.getFile() != null ? response.getFile().toString() : "Error"); // Path to the response JSON file
+        outputRow.createCell(3).setCellValue(response.getStatusCode());
+        outputRow.createCell(4).setCellValue(response.getBytes());
+        outputRow.createCell(5).setCellValue(response.getSha256());
+        outputRow.createCell(6).setCellValue(response.getPreview());
+    }
+
+    private static StoredResponse validateAndExecuteCurl(String curl, Path responseFile) {
         if (!isValidCurl(curl)) {
-            System.out.println("Invalid cURL request: " + curl);
-            return "Invalid cURL Request";
+            LOG.warn("Invalid cURL request: {}", curl);
+            return storeText("Invalid cURL Request", responseFile);
         }
-        return executeApiRequest(curl);
+        return executeApiRequest(curl, responseFile);
     }
 
     private static boolean isValidCurl(String curl) {
         return curl.startsWith("curl") && (curl.contains("--request") || curl.contains("--location") || curl.contains("GET"));
     }
 
-    private static String executeApiRequest(String curl) {
+    private static StoredResponse executeApiRequest(String curl, Path responseFile) {
         try {
-            Pattern urlPattern = Pattern.compile("'https?://[^\\s']+'");
-            Pattern dataPattern = Pattern.compile("--data '(.+?)'", Pattern.DOTALL);
-            Pattern methodPattern = Pattern.compile("--request (\\w+)");
-            Pattern headerPattern = Pattern.compile("--header '([^']+): ([^']+)'", Pattern.DOTALL);
-
-            Matcher urlMatcher = urlPattern.matcher(curl);
-            Matcher dataMatcher = dataPattern.matcher(curl);
-            Matcher methodMatcher = methodPattern.matcher(curl);
-            Matcher headerMatcher = headerPattern.matcher(curl);
-
-            String method = "GET"; // Default to GET
-            if (methodMatcher.find()) {
-                method = methodMatcher.group(1).toUpperCase();
-            }
-
-            if (urlMatcher.find()) {
-                String url = urlMatcher.group().replace("'", "");
-                String body = dataMatcher.find() ? dataMatcher.group(1) : "";
+            CurlRequest curlRequest = CurlParser.parse(curl);
+            String method = curlRequest.getMethod();
+            String url = curlRequest.getUrl();
 
-                System.out.println("Executing API request to: " + url);
-                System.out.println("Request Method: " + method);
-                System.out.println("Request Body: " + body);
+            if (url != null && url.startsWith("http")) {
+                String body = curlRequest.getBody();
 
-                io.restassured.specification.RequestSpecification request = RestAssured.given();
-                request.contentType(ContentType.JSON);
-
-                while (headerMatcher.find()) {
-                    String headerName = headerMatcher.group(1);
-                    String headerValue = headerMatcher.group(2);
-                    request.header(headerName, headerValue);
-                    System.out.println("Adding Header: " + headerName + " = " + headerValue);
-                }
+                LOG.debug("Executing API request to: {}", url);
+                LOG.debug("Request Method: {}", method);
+                LOG.debug("Request Body: {}", body);
 
-                Response response;
-                if (method.equals("POST")) {
-                    response = request.body(body).post(url);
-                } else if (method.equals("PUT")) {
-                    response = request.body(body).put(url);
-                } else if (method.equals("DELETE")) {
-                    response = request.delete(url);
-                } else if (method.equals("PATCH")) {
-                    response = request.body(body).patch(url);
-                } else { // Default to GET
-                    response = request.get(url);
+                for (Map.Entry<String, String> header : curlRequest.getHeaders()) {
+                    LOG.debug("Adding Header: {} = {}", header.getKey(), header.getValue());
                 }
 
-                return response.getBody().asString();
+                // Pooled keep-alive transport shared by all rows; bodies without a Content-Type are sent as JSON.
+                // The body is streamed from the socket to the response file and never held as a String.
+                return transport.execute(curlRequest, ResponseSink.toFile(responseFile, gzipResponses(), PREVIEW_LENGTH));
             }
         } catch (Exception e) {
-            System.out.println("Execution Error: " + e.getMessage());
-            return "Execution Error: " + e.getMessage();
+            LOG.error("Execution Error: {}", e.getMessage());
+            return storeText("Execution Error: " + e.getMessage(), responseFile);
         }
-        return "Execution Failed";
+        return storeText("Execution Failed", responseFile);
     }
 
     private static String createResponseDirectory() {
@@ -237,26 +239,26 @@ public class CurlProcessor {
             responseDir.mkdir();
         }
         
-        System.out.println("Response directory created: " + responseDirPath);
+        LOG.info("Response directory created: {}", responseDirPath);
         return responseDirPath; // Return the directory path
     }
 
-    private static String writeResponseToFile(String response, String sheetName, int rowIndex, String responseDirPath) {
-        try {
-            // Define the file path for the response JSON file
-            String responseFileName = sheetName + "_response_" + rowIndex + ".json"; // Unique file for each response
-            String responseFilePath = responseDirPath + "/" + responseFileName;
+    private static Path responseFile(String sheetName, int rowIndex, String responseDirPath) {
+        // Unique file for each response, gzip-compressed when response.gzip=true
+        String responseFileName = sheetName + "_response_" + rowIndex + (gzipResponses() ? ".json.gz" : ".json");
+        return Paths.get(responseDirPath, responseFileName);
+    }
 
-            // Write the response to the file
-            try (FileWriter writer = new FileWriter(responseFilePath)) {
-                writer.write(response);
-            }
+    private static boolean gzipResponses() {
+        return Boolean.parseBoolean(properties.getProperty("response.gzip", "false"));
+    }
 
-            System.out.println("Response saved to: " + responseFilePath);
-            return responseFilePath; // Return the path to the file
+    private static StoredResponse storeText(String text, Path responseFile) {
+        try {
+            return ResponseSink.store(text, responseFile, gzipResponses(), PREVIEW_LENGTH);
         } catch (IOException e) {
-            System.out.println("Error writing response to file: " + e.getMessage());
-            return "Error";
+            LOG.error("Error writing response to file: {}", e.getMessage());
+            return new StoredResponse(0, null, 0, text, "");
         }
     }
 }
@@ -0,0 +1,70 @@
+package postmanCollectionsHelper;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable HTTP request parsed from a cURL command by {@link CurlParser}.
+ */
+public final class CurlRequest {
+    private final String method;
+    private final String url;
+    private final List<Map.Entry<String, String>> headers;
+    private final String body;
+    private final boolean followRedirects;
+
+    CurlRequest(String method, String url, List<Map.Entry<String, String>> headers, String body, boolean followRedirects) {
+        this.method = method;
+        this.url = url;
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.body = body;
+        this.followRedirects = followRedirects;
+    }
+
+    static Map.Entry<String, String> header(String name, String value) {
+        return new AbstractMap.SimpleImmutableEntry<>(name, value);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    // Headers in command order, duplicates are kept
+    public List<Map.Entry<String, String>> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        for (Map.Entry<String, String> header : headers) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    // Request body, "" when the command has no --data
+    public String getBody() {
+        return body;
+    }
+
+    public boolean hasBody() {
+        return !body.isEmpty();
+    }
+
+    public boolean isFollowRedirects() {
+        return followRedirects;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
@@ -4,26 +4,64 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.IndexedColors;
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import postmanCollectionsHelper.StreamingXlsxReader.XlsxCell;
+import postmanCollectionsHelper.StreamingXlsxReader.XlsxRow;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Merges every sheet of every workbook in a folder into one sheet, tagged with its sheet and file name.
+ *
+ * Reader threads (-Dthreads) parse the input workbooks with {@link StreamingXlsxReader} and hand row batches to
+ * the writer through a bounded queue per file. The writer, on the main thread, drains the queues in file order,
+ * so the merged rows and the duplicate sheet tracking come out the same as when reading one file after the other.
+ */
 public class ExcelMergerWithSheetTraceAndDuplicates {
+    private static final Logger LOG = LogManager.getLogger(ExcelMergerWithSheetTraceAndDuplicates.class);
 
     private static final int MAX_CELL_LENGTH = 32767;
     private static final String OUTPUT_FILE = "MergedTestCases.xlsx";
+    private static final int BATCH_ROWS = 256;
+    // Batches a reader may run ahead of the writer
+    private static final int QUEUE_BATCHES = 16;
+
+    private enum Kind { SHEET_START, ROWS, SHEET_END, FILE_END, ERROR }
+
+    // What a reader passes to the writer; rows hold String, Double or Boolean values, null for missing cells
+    private static class Batch {
+        private static final Batch SHEET_END = new Batch(Kind.SHEET_END, null, null, null);
+        private static final Batch FILE_END = new Batch(Kind.FILE_END, null, null, null);
+
+        final Kind kind;
+        final String sheetName;
+        final List<Object[]> rows;
+        final Exception error;
+
+        Batch(Kind kind, String sheetName, List<Object[]> rows, Exception error) {
+            this.kind = kind;
+            this.sheetName = sheetName;
+            this.rows = rows;
+            this.error = error;
+        }
+    }
 
-    public static void main(String[] args) throws IOException, InvalidFormatException {
+    public static void main(String[] args) throws IOException {
         String folderPath = "/Users/bs00880/myworkspace/excels"; // Change this path
         File folder = new File(folderPath);
         File[] files = folder.listFiles((dir, name) -> name.endsWith(".xlsx"));
 
         if (files == null || files.length == 0) {
-            System.out.println("No Excel files found in the folder.");
+            LOG.info("No Excel files found in the folder.");
             return;
         }
 
@@ -43,97 +81,99 @@ public class ExcelMergerWithSheetTraceAndDuplicates {
         redHighlightStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
         Set<String> allSheetNames = new HashSet<>();
-        Map<String, List<String>> duplicateSheetSources = new HashMap<>();
+        // Insertion-ordered so the duplicate report lists sheets in the order they were found
+        Map<String, List<String>> duplicateSheetSources = new LinkedHashMap<>();
 
-        for (File file : files) {
-            try (Workbook workbook = WorkbookFactory.create(file)) {
-                String fileName = file.getName();
+        int threads = Math.max(1, Math.min(ParallelFileProcessor.defaultThreads(), files.length));
+        ExecutorService readers = Executors.newFixedThreadPool(threads);
+        // Strings too long for a cell keep a preview there and their full text in MergedTestCases.xlsx.overflow
+        OverflowStore overflow = OverflowStore.forWorkbook(OUTPUT_FILE);
+        try {
+            List<BlockingQueue<Batch>> queues = new ArrayList<>();
+            for (File file : files) {
+                BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+                queues.add(queue);
+                readers.execute(() -> readWorkbook(file, overflow, queue));
+            }
 
-                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                    Sheet sheet = workbook.getSheetAt(i);
-                    String sheetName = sheet.getSheetName();
-                    boolean isDuplicateSheet = !allSheetNames.add(sheetName);
+            for (int f = 0; f < files.length; f++) {
+                String fileName = files[f].getName();
+                BlockingQueue<Batch> queue = queues.get(f);
+                String sheetName = null;
+                boolean isDuplicateSheet = false;
+                boolean isFirstRow = true;
 
-                    if (isDuplicateSheet) {
-                        duplicateSheetSources.computeIfAbsent(sheetName, k -> new ArrayList<>()).add(fileName);
-                    }
+                for (Batch batch = take(queue); batch.kind != Kind.FILE_END; batch = take(queue)) {
+                    switch (batch.kind) {
+                        case SHEET_START:
+                            sheetName = batch.sheetName;
+                            isDuplicateSheet = !allSheetNames.add(sheetName);
+                            if (isDuplicateSheet) {
+                                duplicateSheetSources.computeIfAbsent(sheetName, k -> new ArrayList<>()).add(fileName);
+                            }
+                            isFirstRow = true;
+                            break;
+                        case ROWS:
+                            for (Object[] values : batch.rows) {
+                                Row newRow = mergedSheet.createRow(mergedRowNum++);
+
+                                // Sheet name cell
+                                Cell sheetNameCell = newRow.createCell(0);
+                                sheetNameCell.setCellValue(sheetName);
+                                if (isDuplicateSheet) sheetNameCell.setCellStyle(redHighlightStyle);
+
+                                // File name cell
+                                Cell fileNameCell = newRow.createCell(1);
+                                fileNameCell.setCellValue(fileName);
+
+                                for (int col = 0; col < values.length; col++) {
+                                    Object value = values[col];
+                                    Cell newCell = newRow.createCell(col + 2);
 
-                    Iterator<Row> rowIterator = sheet.iterator();
-                    boolean isFirstRow = true;
-
-                    while (rowIterator.hasNext()) {
-                        Row row = rowIterator.next();
-
-                        // Skip rows if all cells (excluding first two) are empty
-                        boolean isDataRowEmpty = true;
-                        for (int col = 0; col < row.getLastCellNum(); col++) {
-                            Cell cell = row.getCell(col);
-                            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                                if (cell.getCellType() == CellType.STRING && !cell.getStringCellValue().trim().isEmpty()) {
-                                    isDataRowEmpty = false;
-                                    break;
-                                } else if (cell.getCellType() != CellType.STRING) {
-                                    isDataRowEmpty = false;
-                                    break;
+                                    if (value instanceof String) {
+                                        newCell.setCellValue((String) value);
+                                    } else if (value instanceof Double) {
+                                        newCell.setCellValue((Double) value);
+                                    } else if (value instanceof Boolean) {
+                                        newCell.setCellValue((Boolean) value);
+                                    }
                                 }
-                            }
-                        }
-
-                        if (isDataRowEmpty) continue; // skip empty row
-
-                        Row newRow = mergedSheet.createRow(mergedRowNum++);
-
-                        // Sheet name cell
-                        Cell sheetNameCell = newRow.createCell(0);
-                        sheetNameCell.setCellValue(sheetName);
-                        if (isDuplicateSheet) sheetNameCell.setCellStyle(redHighlightStyle);
-
-                        // File name cell
-                        Cell fileNameCell = newRow.createCell(1);
-                        fileNameCell.setCellValue(fileName);
-
-                        for (int col = 0; col < row.getLastCellNum(); col++) {
-                            Cell oldCell = row.getCell(col);
-                            Cell newCell = newRow.createCell(col + 2);
-
-                            if (oldCell != null) {
-                                switch (oldCell.getCellType()) {
-                                    case STRING:
-                                        String val = oldCell.getStringCellValue();
-                                        if (val.length() > MAX_CELL_LENGTH)
-                                            val = val.substring(0, MAX_CELL_LENGTH - 3) + "...";
-                                        newCell.setCellValue(val);
-                                        break;
-                                    case NUMERIC:
-                                        newCell.setCellValue(oldCell.getNumericCellValue());
-                                        break;
-                                    case BOOLEAN:
-                                        newCell.setCellValue(oldCell.getBooleanCellValue());
-                                        break;
-                                    default:
-                                        newCell.setCellValue("");
+
+                                if (isFirstRow) {
+                                    newRow.setRowStyle(headerStyle);
+                                    isFirstRow = false;
                                 }
                             }
-                        }
-
-                        if (isFirstRow) {
-                            newRow.setRowStyle(headerStyle);
-                            isFirstRow = false;
-                        }
+                            break;
+                        case SHEET_END:
+                            LOG.debug("✅ Processed: {} from {}", sheetName, fileName);
+                            break;
+                        case ERROR:
+                            if (batch.error instanceof IOException) {
+                                throw (IOException) batch.error;
+                            }
+                            throw new IOException("Cannot read " + fileName + ": " + batch.error.getMessage(), batch.error);
+                        default:
                     }
-
-                    System.out.println("✅ Processed: " + sheetName + " from " + fileName);
                 }
             }
+        } finally {
+            readers.shutdownNow();
+            overflow.close();
         }
 
+        long writeStart = System.nanoTime();
         try (FileOutputStream outStream = new FileOutputStream(OUTPUT_FILE)) {
             mergedWorkbook.write(outStream);
-            System.out.println("✅ Merged data written to " + OUTPUT_FILE);
+            RunMetrics.shared().timer("workbook.write").recordSince(writeStart);
+            LOG.info("✅ Merged data written to {}", OUTPUT_FILE);
         }
 
         mergedWorkbook.dispose(); // clean up temporary files
         mergedWorkbook.close();
+        if (overflow.isUsed()) {
+            LOG.info(overflow.stats());
+        }
 
         // Write duplicate sheet info
         if (!duplicateSheetSources.isEmpty()) {
@@ -155,11 +195,121 @@ public class ExcelMergerWithSheetTraceAndDuplicates {
 
             try (FileOutputStream dupOut = new FileOutputStream("DuplicateSheetNames.xlsx")) {
                 dupWorkbook.write(dupOut);
-                System.out.println("📄 Duplicate sheet names exported to DuplicateSheetNames.xlsx");
+                LOG.info("📄 Duplicate sheet names exported to DuplicateSheetNames.xlsx");
             }
 
             dupWorkbook.dispose();
             dupWorkbook.close();
         }
+        RunMetrics.shared().report(OUTPUT_FILE);
+    }
+
+    // Runs on a reader thread: streams every sheet of the workbook into the queue as row batches
+    private static void readWorkbook(File file, OverflowStore overflow, BlockingQueue<Batch> queue) {
+        try (StreamingXlsxReader workbook = new StreamingXlsxReader(file)) {
+            List<String> sheetNames = workbook.getSheetNames();
+            for (int i = 0; i < sheetNames.size(); i++) {
+                put(queue, new Batch(Kind.SHEET_START, sheetNames.get(i), null, null));
+                RowBatcher batcher = new RowBatcher(overflow, queue);
+                workbook.readSheet(i, batcher);
+                batcher.flush();
+                put(queue, Batch.SHEET_END);
+            }
+            put(queue, Batch.FILE_END);
+        } catch (InterruptedIOException e) {
+            // The writer gave up; nobody is waiting for this file any more
+        } catch (Exception e) {
+            try {
+                queue.clear();
+                queue.put(new Batch(Kind.ERROR, null, null, e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Collects the non-empty rows of a sheet into batches for the writer
+    private static class RowBatcher implements StreamingXlsxReader.RowVisitor {
+        private final OverflowStore overflow;
+        private final BlockingQueue<Batch> queue;
+        private List<Object[]> rows = new ArrayList<>(BATCH_ROWS);
+
+        RowBatcher(OverflowStore overflow, BlockingQueue<Batch> queue) {
+            this.overflow = overflow;
+            this.queue = queue;
+        }
+
+        @Override
+        public void visitRow(XlsxRow row) throws IOException {
+            Object[] values = copyRow(row, overflow);
+            if (values == null) return; // skip empty row
+            rows.add(values);
+            if (rows.size() == BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        void flush() throws InterruptedIOException {
+            if (!rows.isEmpty()) {
+                put(queue, new Batch(Kind.ROWS, null, rows, null));
+                rows = new ArrayList<>(BATCH_ROWS);
+            }
+        }
+    }
+
+    // Cell values of the row, or null if all cells are blank or whitespace-only strings
+    private static Object[] copyRow(XlsxRow row, OverflowStore overflow) throws IOException {
+        boolean isDataRowEmpty = true;
+        for (int col = 0; col < row.getLastCellNum(); col++) {
+            XlsxCell cell = row.getCell(col);
+            if (cell != null && cell.getCellType() != CellType.BLANK) {
+                if (cell.getCellType() != CellType.STRING || !cell.getStringCellValue().trim().isEmpty()) {
+                    isDataRowEmpty = false;
+                    break;
+                }
+            }
+        }
+        if (isDataRowEmpty) {
+            return null;
+        }
+
+        Object[] values = new Object[row.getLastCellNum()];
+        for (int col = 0; col < values.length; col++) {
+            XlsxCell oldCell = row.getCell(col);
+            if (oldCell != null) {
+                switch (oldCell.getCellType()) {
+                    case STRING:
+                        values[col] = overflow.cellValue(oldCell.getStringCellValue(), MAX_CELL_LENGTH);
+                        break;
+                    case NUMERIC:
+                        values[col] = oldCell.getNumericCellValue();
+                        break;
+                    case BOOLEAN:
+                        values[col] = oldCell.getBooleanCellValue();
+                        break;
+                    default:
+                        values[col] = "";
+                }
+            }
+        }
+        return values;
+    }
+
+    private static void put(BlockingQueue<Batch> queue, Batch batch) throws InterruptedIOException {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handing rows to the writer");
+        }
+    }
+
+    private static Batch take(BlockingQueue<Batch> queue) throws InterruptedIOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for rows");
+        }
     }
 }
@@ -0,0 +1,255 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sorts collection items by a string key within a fixed memory budget. Items are kept as compact JSON bytes; when
+ * the buffered items exceed their share of the budget they are sorted and spilled to a temp file as a run, on a
+ * worker thread while the next chunk fills. The runs are then combined with a k-way heap merge straight into the
+ * output. Items with equal keys keep their insertion order, like a stable in-memory sort.
+ *
+ * Run file record: key length (int), key (UTF-8), sequence (long), item length (int), item (JSON).
+ *
+ * Memory budget: -Dsort.memoryMb (default 256); runs are sorted by -Dthreads workers.
+ */
+public class ExternalItemSorter implements Closeable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Rough per-item cost of the record object, key chars and array headers
+    private static final int RECORD_OVERHEAD = 96;
+
+    private static final Comparator<Record> ORDER =
+            Comparator.comparing((Record record) -> record.key).thenComparingLong(record -> record.sequence);
+
+    private static class Record {
+        final String key;
+        final long sequence;
+        final byte[] item;
+
+        Record(String key, long sequence, byte[] item) {
+            this.key = key;
+            this.sequence = sequence;
+            this.item = item;
+        }
+    }
+
+    private final long chunkBytes;
+    private final int threads;
+    private ExecutorService sorters;
+    private final Deque<Future<Path>> pendingRuns = new ArrayDeque<>();
+    private final List<Path> runs = new ArrayList<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private List<Record> chunk = new ArrayList<>();
+    private long chunkUsed;
+    private long sequence;
+    private Path tempDir;
+
+    public static ExternalItemSorter fromSystemProperties() {
+        return new ExternalItemSorter(Long.getLong("sort.memoryMb", 256L) << 20, ParallelFileProcessor.defaultThreads());
+    }
+
+    public ExternalItemSorter(long memoryBytes, int threads) {
+        this.threads = Math.max(1, threads);
+        // The chunk being filled plus one chunk per worker being sorted share the budget
+        this.chunkBytes = Math.max(1 << 16, memoryBytes / (this.threads + 1));
+    }
+
+    public void add(String key, PostmanItem item) throws IOException {
+        buffer.reset();
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(buffer)) {
+            item.writeTo(generator);
+        }
+        byte[] bytes = buffer.toByteArray();
+        chunk.add(new Record(key, sequence++, bytes));
+        chunkUsed += bytes.length + 2L * key.length() + RECORD_OVERHEAD;
+        if (chunkUsed >= chunkBytes) {
+            spill();
+        }
+    }
+
+    public long size() {
+        return sequence;
+    }
+
+    public int getRunCount() {
+        return runs.size() + pendingRuns.size();
+    }
+
+    // Hands the full chunk to a worker; waits for the oldest run when all workers are busy
+    private void spill() throws IOException {
+        if (tempDir == null) {
+            tempDir = Files.createTempDirectory("postman-sort");
+            sorters = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "sort-run");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        while (pendingRuns.size() >= threads) {
+            runs.add(await(pendingRuns.poll()));
+        }
+        List<Record> full = chunk;
+        Path run = tempDir.resolve("run_" + (runs.size() + pendingRuns.size()) + ".bin");
+        pendingRuns.add(sorters.submit(() -> writeRun(full, run)));
+        chunk = new ArrayList<>();
+        chunkUsed = 0;
+    }
+
+    private static Path writeRun(List<Record> records, Path run) throws IOException {
+        records.sort(ORDER);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (Record record : records) {
+                byte[] key = record.key.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeLong(record.sequence);
+                out.writeInt(record.item.length);
+                out.write(record.item);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Writes every item in key order. Stays in memory if nothing was spilled, otherwise merges the runs.
+     */
+    public void writeTo(MergedCollectionWriter writer) throws IOException {
+        if (runs.isEmpty() && pendingRuns.isEmpty()) {
+            chunk.sort(ORDER);
+            for (Record record : chunk) {
+                writeItem(writer, record.item);
+            }
+            return;
+        }
+        if (!chunk.isEmpty()) {
+            spill();
+        }
+        while (!pendingRuns.isEmpty()) {
+            runs.add(await(pendingRuns.poll()));
+        }
+
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(runs.size(), Comparator.comparing(reader -> reader.current, ORDER));
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) {
+                    heap.add(reader);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                writeItem(writer, reader.current.item);
+                if (reader.next()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void writeItem(MergedCollectionWriter writer, byte[] item) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(item)) {
+            writer.copyItem(parser);
+        }
+    }
+
+    private static class RunReader implements Closeable {
+        private final DataInputStream in;
+        Record current;
+
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean next() throws IOException {
+            int keyLength;
+            try {
+                keyLength = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            byte[] key = new byte[keyLength];
+            in.readFully(key);
+            long sequence = in.readLong();
+            byte[] item = new byte[in.readInt()];
+            in.readFully(item);
+            current = new Record(new String(key, StandardCharsets.UTF_8), sequence, item);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static Path await(Future<Path> run) throws IOException {
+        try {
+            return run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sorting a run");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Stops the workers and deletes the run files.
+     */
+    @Override
+    public void close() throws IOException {
+        if (tempDir == null) {
+            return;
+        }
+        sorters.shutdown();
+        for (Future<Path> pending : pendingRuns) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ignored) {
+                // A failed run leaves at most a partial file, deleted below
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(tempDir);
+    }
+}
@@ -0,0 +1,102 @@
+package postmanCollectionsHelper;
+
+/**
+ * Open-addressing hash set of 128-bit fingerprints stored in a flat long[] (two longs per slot, linear probing),
+ * about 16-32 bytes per entry with no object per element. The all-zero fingerprint marks an empty slot and is
+ * tracked separately. Not thread-safe.
+ */
+public final class FingerprintSet {
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] slots;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean containsZero;
+
+    public FingerprintSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public FingerprintSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity * 2];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * MAX_LOAD);
+    }
+
+    public boolean add(ContentFingerprint fingerprint) {
+        return add(fingerprint.getHigh(), fingerprint.getLow());
+    }
+
+    /**
+     * Returns true if the fingerprint was not in the set yet.
+     */
+    public boolean add(long high, long low) {
+        if (high == 0 && low == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = indexOf(high, low);
+        if (slots[slot * 2] != 0 || slots[slot * 2 + 1] != 0) {
+            return false;
+        }
+        slots[slot * 2] = high;
+        slots[slot * 2 + 1] = low;
+        if (++size > resizeAt) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(ContentFingerprint fingerprint) {
+        return contains(fingerprint.getHigh(), fingerprint.getLow());
+    }
+
+    public boolean contains(long high, long low) {
+        if (high == 0 && low == 0) {
+            return containsZero;
+        }
+        int slot = indexOf(high, low);
+        return slots[slot * 2] != 0 || slots[slot * 2 + 1] != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot holding the fingerprint, or the empty slot where it belongs
+    private int indexOf(long high, long low) {
+        int slot = (int) (low ^ (low >>> 32)) & mask;
+        while (true) {
+            long slotHigh = slots[slot * 2];
+            long slotLow = slots[slot * 2 + 1];
+            if ((slotHigh == high && slotLow == low) || (slotHigh == 0 && slotLow == 0)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] old = slots;
+        allocate((mask + 1) * 2);
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0 || old[i + 1] != 0) {
+                int slot = indexOf(old[i], old[i + 1]);
+                slots[slot * 2] = old[i];
+                slots[slot * 2 + 1] = old[i + 1];
+            }
+        }
+    }
+}
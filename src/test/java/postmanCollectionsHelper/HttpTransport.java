@@ -0,0 +1,104 @@
+package postmanCollectionsHelper;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP client for replay runs. Connections are pooled and kept alive between rows, so requests to the
+ * same microservice skip the TCP/TLS handshake, and responses are requested and decoded with gzip/deflate.
+ *
+ * Pool sizes use the same keys as {@link CurlExecutionEngine} (concurrency.total, concurrency.default and
+ * concurrency.&lt;service&gt; per route), timeouts come from http.connect_timeout_ms and http.socket_timeout_ms.
+ * Redirects are only followed for requests that asked for it (-L/--location), for any method, as cURL does.
+ * Apache HttpClient 4 speaks HTTP/1.1 only; HTTP/2 would need a Java 11+ client.
+ */
+public class HttpTransport implements Closeable {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final RequestConfig requestConfig;
+
+    public HttpTransport(int maxTotal, int defaultMaxPerRoute, Map<String, Integer> routeLimits, int connectTimeoutMs, int socketTimeoutMs) {
+        connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(defaultMaxPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+        for (Map.Entry<String, Integer> routeLimit : routeLimits.entrySet()) {
+            for (String scheme : new String[]{"http", "https"}) {
+                HttpHost host = HttpHost.create(scheme + "://" + routeLimit.getKey());
+                connectionManager.setMaxPerRoute(new HttpRoute(host), routeLimit.getValue());
+            }
+        }
+
+        requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectTimeoutMs)
+                .setSocketTimeout(socketTimeoutMs)
+                .build();
+
+        // Content compression (Accept-Encoding: gzip,deflate) is enabled by default in HttpClientBuilder
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setRedirectStrategy(LaxRedirectStrategy.INSTANCE)
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public static HttpTransport fromProperties(Properties properties) {
+        Map<String, Integer> routeLimits = CurlExecutionEngine.hostLimits(properties);
+        int maxTotal = Integer.parseInt(properties.getProperty("concurrency.total", "32").trim());
+        int perRoute = Integer.parseInt(properties.getProperty("concurrency.default", "4").trim());
+        int connectTimeout = Integer.parseInt(properties.getProperty("http.connect_timeout_ms", "10000").trim());
+        int socketTimeout = Integer.parseInt(properties.getProperty("http.socket_timeout_ms", "120000").trim());
+        return new HttpTransport(maxTotal, perRoute, routeLimits, connectTimeout, socketTimeout);
+    }
+
+    public <T> T execute(CurlRequest request, ResponseHandler<? extends T> handler) throws IOException {
+        RequestBuilder builder = RequestBuilder.create(request.getMethod()).setUri(request.getUrl())
+                .setConfig(RequestConfig.copy(requestConfig).setRedirectsEnabled(request.isFollowRedirects()).build());
+        for (Map.Entry<String, String> header : request.getHeaders()) {
+            builder.addHeader(header.getKey(), header.getValue());
+        }
+
+        String method = request.getMethod();
+        if (request.hasBody() && (method.equals("POST") || method.equals("PUT") || method.equals("PATCH"))) {
+            String contentTypeHeader = request.getHeader("Content-Type");
+            ContentType contentType = contentTypeHeader != null ? ContentType.parse(contentTypeHeader) : ContentType.APPLICATION_JSON;
+            if (contentType.getCharset() == null) {
+                contentType = contentType.withCharset(StandardCharsets.UTF_8);
+            }
+            builder.setEntity(new StringEntity(request.getBody(), contentType));
+        }
+        HttpUriRequest httpRequest = builder.build();
+        long start = System.nanoTime();
+        try {
+            return client.execute(httpRequest, handler);
+        } finally {
+            // One timer per microservice host
+            RunMetrics.shared().timer("http." + httpRequest.getURI().getHost()).recordSince(start);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+        connectionManager.close();
+    }
+}
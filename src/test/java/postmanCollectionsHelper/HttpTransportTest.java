@@ -0,0 +1,161 @@
+package postmanCollectionsHelper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import postmanCollectionsHelper.ResponseSink.StoredResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs {@link HttpTransport} against an in-process HTTP server.
+ */
+public class HttpTransportTest {
+    private HttpServer server;
+    private HttpTransport transport;
+    private Path responseDir;
+    private String baseUrl;
+    // What the server saw of the last request to each path
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private final Set<Integer> clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/plain", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, 200, "plain body".getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/gzip", exchange -> {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            received.put("/gzip", acceptEncoding == null ? "" : acceptEncoding);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(repeat("{\"id\":1,\"name\":\"compressed\"}", 200).getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            respond(exchange, 200, compressed.toByteArray());
+        });
+        server.createContext("/echo", exchange -> {
+            String body = new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            received.put("/echo", exchange.getRequestMethod()
+                    + "|" + exchange.getRequestHeaders().getFirst("X-Trace-Id")
+                    + "|" + exchange.getRequestHeaders().getFirst("Content-Type")
+                    + "|" + body);
+            respond(exchange, 201, "created".getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", baseUrl + "/plain");
+            respond(exchange, 302, "moved".getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        transport = new HttpTransport(4, 4, Collections.emptyMap(), 5000, 5000);
+        responseDir = Files.createTempDirectory("http-transport-test");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() throws IOException {
+        transport.close();
+        server.stop(0);
+        try (Stream<Path> files = Files.list(responseDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(responseDir);
+    }
+
+    @Test
+    public void reusesPooledConnection() throws IOException {
+        clientPorts.clear();
+        for (int i = 0; i < 3; i++) {
+            StoredResponse response = execute("curl '" + baseUrl + "/plain'", "plain" + i);
+            Assert.assertEquals(response.getStatusCode(), 200);
+        }
+        // Every call came in over the same kept-alive socket
+        Assert.assertEquals(clientPorts.size(), 1, "client ports " + clientPorts);
+    }
+
+    @Test
+    public void decodesGzipResponses() throws IOException {
+        StoredResponse response = execute("curl '" + baseUrl + "/gzip'", "gzip");
+        Assert.assertEquals(response.getStatusCode(), 200);
+        Assert.assertTrue(received.get("/gzip").contains("gzip"), "Accept-Encoding " + received.get("/gzip"));
+        Assert.assertEquals(new String(Files.readAllBytes(response.getFile()), StandardCharsets.UTF_8),
+                repeat("{\"id\":1,\"name\":\"compressed\"}", 200));
+    }
+
+    @Test
+    public void sendsHeadersAndBodyOfEachRequest() throws IOException {
+        StoredResponse first = execute("curl -X PUT '" + baseUrl + "/echo' -H 'X-Trace-Id: first'"
+                + " -H 'Content-Type: application/json' --data-raw '{\"n\":1}'", "echo1");
+        Assert.assertEquals(first.getStatusCode(), 201);
+        Assert.assertEquals(received.get("/echo"), "PUT|first|application/json|{\"n\":1}");
+
+        StoredResponse second = execute("curl '" + baseUrl + "/echo' -H 'X-Trace-Id: second'"
+                + " -H 'Content-Type: text/plain' -d 'a=1' -d 'b=2'", "echo2");
+        Assert.assertEquals(second.getStatusCode(), 201);
+        Assert.assertEquals(received.get("/echo"), "POST|second|text/plain|a=1&b=2");
+    }
+
+    @Test
+    public void followsRedirectsOnlyWithLocationOption() throws IOException {
+        Assert.assertEquals(execute("curl '" + baseUrl + "/moved'", "moved").getStatusCode(), 302);
+
+        StoredResponse followed = execute("curl -L '" + baseUrl + "/moved'", "followed");
+        Assert.assertEquals(followed.getStatusCode(), 200);
+        Assert.assertEquals(followed.getPreview(), "plain body");
+
+        StoredResponse post = execute("curl --location -X POST '" + baseUrl + "/moved' -d 'x=1'", "post");
+        Assert.assertEquals(post.getStatusCode(), 200);
+    }
+
+    private StoredResponse execute(String curl, String name) throws IOException {
+        return transport.execute(CurlParser.parse(curl), ResponseSink.toFile(responseDir.resolve(name), false, 100));
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        readAll(exchange.getRequestBody());
+        // A fixed length keeps the connection open for the next request
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n; (n = in.read(buffer)) != -1; ) {
+            bytes.write(buffer, 0, n);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder repeated = new StringBuilder(text.length() * times);
+        for (int i = 0; i < times; i++) {
+            repeated.append(text);
+        }
+        return repeated.toString();
+    }
+}
@@ -4,13 +4,25 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import postmanCollectionsHelper.StreamingXlsxReader.XlsxCell;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 public class JsonComparator {
+    private static final Logger LOG = LogManager.getLogger(JsonComparator.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final LatencyHistogram DIFF_TIMER = RunMetrics.shared().timer("json.diff");
+    private static final LatencyHistogram WRITE_TIMER = RunMetrics.shared().timer("workbook.write");
+    // Differences reported per row, -DmaxDifferences=N
+    private static final int MAX_DIFFERENCES = Integer.getInteger("maxDifferences", 100);
+    // Array elements are compared by index by default; -DarrayMatch=content or -DarrayMatch=key:id,productCode pairs them regardless of order
+    private static final JsonDiff.ArrayMatching ARRAY_MATCHING = JsonDiff.ArrayMatching.parse(System.getProperty("arrayMatch", "index"));
 
     public static void main(String[] args) throws Exception {
         String inputFilePath = "MS-Wise-Api-Validation-Test-Results-Automate.xlsx";
@@ -22,43 +34,40 @@ public class JsonComparator {
     
 
     public static void compareJsonWithKeyMatching(String inputFilePath, String outputFilePath) throws Exception {
-        FileInputStream fis = new FileInputStream(inputFilePath);
-        Workbook inputWorkbook = new XSSFWorkbook(fis);
-        Sheet inputSheet = inputWorkbook.getSheetAt(4);
-
         Map<String, List<String>> collectionA = new LinkedHashMap<>();
         Map<String, List<String>> collectionB = new LinkedHashMap<>();
 
-        // Load data into collections
-        for (int i = 1; i <= inputSheet.getLastRowNum(); i++) {
-            Row row = inputSheet.getRow(i);
-            if (row == null) continue;
+        // Load data into collections, streaming the input sheet row by row
+        try (StreamingXlsxReader inputWorkbook = new StreamingXlsxReader(new File(inputFilePath))) {
+            inputWorkbook.readSheet(4, row -> {
+                if (row.getRowNum() == 0) return;
 
-            // A_Key = C|D|Q -> (2, 3, 16)
-            String colC = cleanCellValue(row.getCell(2));
-            String colD = cleanCellValue(row.getCell(3));
-            String colQ = cleanCellValue(row.getCell(16));
-            String aKey = colC + "|" + colD + "|" + colQ;
+                // A_Key = C|D|Q -> (2, 3, 16)
+                String colC = cleanCellValue(row.getCell(2));
+                String colD = cleanCellValue(row.getCell(3));
+                String colQ = cleanCellValue(row.getCell(16));
+                String aKey = colC + "|" + colD + "|" + colQ;
 
-            List<String> aValues = new ArrayList<>();
-            for (int ii = 0; ii <= 17; ii++) {
-                aValues.add(getCellValueAsString(row.getCell(ii)));
-            }
-            collectionA.put(aKey, aValues);
-            System.out.println("A_Key: " + aKey);
-
-            // B_Key = S|T|Z -> (18, 19, 25)
-            String colS = cleanCellValue(row.getCell(18));
-            String colT = cleanCellValue(row.getCell(19));
-            String colZ = cleanCellValue(row.getCell(25));
-            String bKey = colS + "|" + colT + "|" + colZ;
-
-            List<String> bValues = new ArrayList<>();
-            for (int ij = 18; ij <= 25; ij++) {
-                bValues.add(getCellValueAsString(row.getCell(ij)));
-            }
-            collectionB.put(bKey, bValues);
-            System.out.println("B_Key: " + bKey);
+                List<String> aValues = new ArrayList<>();
+                for (int ii = 0; ii <= 17; ii++) {
+                    aValues.add(getCellValueAsString(row.getCell(ii)));
+                }
+                collectionA.put(aKey, aValues);
+                LOG.debug("A_Key: {}", aKey);
+
+                // B_Key = S|T|Z -> (18, 19, 25)
+                String colS = cleanCellValue(row.getCell(18));
+                String colT = cleanCellValue(row.getCell(19));
+                String colZ = cleanCellValue(row.getCell(25));
+                String bKey = colS + "|" + colT + "|" + colZ;
+
+                List<String> bValues = new ArrayList<>();
+                for (int ij = 18; ij <= 25; ij++) {
+                    bValues.add(getCellValueAsString(row.getCell(ij)));
+                }
+                collectionB.put(bKey, bValues);
+                LOG.debug("B_Key: {}", bKey);
+            });
         }
 
         Workbook outputWorkbook = new XSSFWorkbook();
@@ -86,95 +95,84 @@ public class JsonComparator {
             }
         }
 
-        // Master comparison and output
+        // Master comparison and output. Rows are written here in A's order while the JSON comparisons run on a pool;
+        // at most `window` comparisons are in flight and each one parses and drops its own trees
+        int threads = ParallelFileProcessor.defaultThreads();
+        int window = threads * 4;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Deque<Cell> pendingCells = new ArrayDeque<>();
+        Deque<CompletableFuture<String>> pendingComparisons = new ArrayDeque<>();
         int mRowNum = 0;
-        for (Map.Entry<String, List<String>> aEntry : collectionA.entrySet()) {
-            Row mRow = masterSheet.createRow(mRowNum++);
-            int cellNum = 0;
-            for (String val : aEntry.getValue()) {
-                mRow.createCell(cellNum++).setCellValue(val);
-            }
-
-            String aKey = aEntry.getKey();
-            if (collectionB.containsKey(aKey)) {
-                List<String> bVals = collectionB.get(aKey);
-                for (String val : bVals) {
+        try {
+            for (Map.Entry<String, List<String>> aEntry : collectionA.entrySet()) {
+                Row mRow = masterSheet.createRow(mRowNum++);
+                int cellNum = 0;
+                for (String val : aEntry.getValue()) {
                     mRow.createCell(cellNum++).setCellValue(val);
                 }
 
-                // JSON comparison: H (index 7 in A) and V (index 21 in full sheet, so 21 - 18 = 3 in B)
-                String jsonA = aEntry.getValue().size() > 7 ? aEntry.getValue().get(7) : "";
-                String jsonB = bVals.size() > 3 ? bVals.get(3) : "";
-
-                System.out.println("Comparing A_Key: " + aKey);
-//                System.out.println("  JSON A: " + jsonA);
-//                System.out.println("  JSON B: " + jsonB);
-
-                String comparison = compareJson(jsonA, jsonB);
-                mRow.createCell(26).setCellValue(comparison);
-            } else {
-                mRow.createCell(26).setCellValue("Not Found in Collection B");
-                System.out.println("Not Found in B: " + aKey);
+                String aKey = aEntry.getKey();
+                if (collectionB.containsKey(aKey)) {
+                    List<String> bVals = collectionB.get(aKey);
+                    for (String val : bVals) {
+                        mRow.createCell(cellNum++).setCellValue(val);
+                    }
+
+                    // JSON comparison: H (index 7 in A) and V (index 21 in full sheet, so 21 - 18 = 3 in B)
+                    String jsonA = aEntry.getValue().size() > 7 ? aEntry.getValue().get(7) : "";
+                    String jsonB = bVals.size() > 3 ? bVals.get(3) : "";
+
+                    LOG.debug("Comparing A_Key: {}", aKey);
+//                    System.out.println("  JSON A: " + jsonA);
+//                    System.out.println("  JSON B: " + jsonB);
+
+                    pendingCells.add(mRow.createCell(26));
+                    pendingComparisons.add(CompletableFuture.supplyAsync(() -> compareJson(jsonA, jsonB), pool));
+                    if (pendingComparisons.size() >= window) {
+                        pendingCells.poll().setCellValue(pendingComparisons.poll().join());
+                    }
+                } else {
+                    mRow.createCell(26).setCellValue("Not Found in Collection B");
+                    LOG.debug("Not Found in B: {}", aKey);
+                }
+            }
+            while (!pendingComparisons.isEmpty()) {
+                pendingCells.poll().setCellValue(pendingComparisons.poll().join());
             }
+        } finally {
+            pool.shutdownNow();
         }
 
+        long writeStart = System.nanoTime();
         FileOutputStream fos = new FileOutputStream(outputFilePath);
         outputWorkbook.write(fos);
         fos.close();
-        inputWorkbook.close();
+        WRITE_TIMER.recordSince(writeStart);
         outputWorkbook.close();
 
-        System.out.println("Comparison complete. Output written to: " + outputFilePath);
+        LOG.info("Comparison complete. Output written to: {}", outputFilePath);
+        RunMetrics.shared().report(outputFilePath);
     }
 
 
-    private static String compareJson(String jsonStr1, String jsonStr2) {
+    static String compareJson(String jsonStr1, String jsonStr2) {
+        long start = System.nanoTime();
         try {
             JsonNode jsonNode1 = objectMapper.readTree(jsonStr1);
             JsonNode jsonNode2 = objectMapper.readTree(jsonStr2);
-            List<String> differences = new ArrayList<>();
-            compareJsonNodes(jsonNode1, jsonNode2, "", differences);
-            return differences.isEmpty() ? "Identical" : String.join("; ", differences);
-        } catch (Exception e) {
-            return "Invalid JSON: " + e.getMessage();
-        }
-    }
-
-    private static void compareJsonNodes(JsonNode node1, JsonNode node2, String path, List<String> differences) {
-        if (!node1.getNodeType().equals(node2.getNodeType())) {
-            differences.add("Type mismatch at " + path);
-            return;
-        }
-        if (node1.isObject()) {
-            Iterator<Map.Entry<String, JsonNode>> fields = node1.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> entry = fields.next();
-                String key = entry.getKey();
-                if (!node2.has(key)) {
-                    differences.add("Missing key in JSON2 at " + path + "." + key);
-                    continue;
-                }
-                compareJsonNodes(entry.getValue(), node2.get(key), path + "." + key, differences);
+            JsonDiff.Result result = JsonDiff.compare(jsonNode1, jsonNode2, MAX_DIFFERENCES, ARRAY_MATCHING);
+            if (result.isIdentical()) {
+                return "Identical";
             }
-            Iterator<Map.Entry<String, JsonNode>> fields2 = node2.fields();
-            while (fields2.hasNext()) {
-                String key = fields2.next().getKey();
-                if (!node1.has(key)) {
-                    differences.add("Missing key in JSON1 at " + path + "." + key);
-                }
-            }
-        } else if (node1.isArray()) {
-            if (node1.size() != node2.size()) {
-                differences.add("Array size mismatch at " + path);
-                return;
-            }
-            for (int i = 0; i < node1.size(); i++) {
-                compareJsonNodes(node1.get(i), node2.get(i), path + "[" + i + "]", differences);
-            }
-        } else {
-            if (!node1.asText().equals(node2.asText())) {
-                differences.add("Value mismatch at " + path + " - " + node1.asText() + " vs " + node2.asText());
+            StringJoiner differences = new StringJoiner("; ");
+            for (JsonDiff.Difference difference : result.getDifferences()) {
+                differences.add(difference.toString());
             }
+            return result.isTruncated() ? differences + "; ... (first " + MAX_DIFFERENCES + " differences)" : differences.toString();
+        } catch (Exception e) {
+            return "Invalid JSON: " + e.getMessage();
+        } finally {
+            DIFF_TIMER.recordSince(start);
         }
     }
 
@@ -183,7 +181,7 @@ public class JsonComparator {
         return baseFileName.replace(".xlsx", "_" + timestamp + ".xlsx");
     }
 
-    private static String cleanCellValue(Cell cell) {
+    private static String cleanCellValue(XlsxCell cell) {
         if (cell == null) return "";
         switch (cell.getCellType()) {
             case STRING:
@@ -202,7 +200,7 @@ public class JsonComparator {
                 return "";
         }
     }
-    private static String getCellValueAsString(Cell cell) {
+    private static String getCellValueAsString(XlsxCell cell) {
         if (cell == null) return "";
         switch (cell.getCellType()) {
             case STRING: return cell.getStringCellValue();
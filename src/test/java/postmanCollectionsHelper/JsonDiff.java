@@ -0,0 +1,379 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural diff of two JSON trees. The current path is kept as a stack of keys and indices and only rendered to a
+ * String when a difference is recorded, each field is looked up once, and equal leaves are compared without asText().
+ * The walk stops once {@code maxDifferences} are found, so {@link #identical} returns at the first difference.
+ *
+ * Paths and messages follow the format JsonComparator always wrote, e.g. "Value mismatch at .data[0].id - 1 vs 2".
+ *
+ * Arrays are compared by index unless an {@link ArrayMatching} is given, in which case elements are paired
+ * regardless of order through hash maps, in O(n), by a key path such as "id" or by their whole content.
+ */
+public class JsonDiff {
+
+    public enum Kind {
+        TYPE_MISMATCH("Type mismatch at "),
+        MISSING_IN_SECOND("Missing key in JSON2 at "),
+        MISSING_IN_FIRST("Missing key in JSON1 at "),
+        ARRAY_SIZE_MISMATCH("Array size mismatch at "),
+        VALUE_MISMATCH("Value mismatch at "),
+        MISSING_ELEMENT_IN_SECOND("Missing element in JSON2 at "),
+        MISSING_ELEMENT_IN_FIRST("Missing element in JSON1 at ");
+
+        private final String message;
+
+        Kind(String message) {
+            this.message = message;
+        }
+    }
+
+    public static class Difference {
+        private final Kind kind;
+        private final String path;
+        private final JsonNode first;
+        private final JsonNode second;
+
+        Difference(Kind kind, String path, JsonNode first, JsonNode second) {
+            this.kind = kind;
+            this.path = path;
+            this.first = first;
+            this.second = second;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        // Value on each side; null when the key is missing on that side
+        public JsonNode getFirst() {
+            return first;
+        }
+
+        public JsonNode getSecond() {
+            return second;
+        }
+
+        @Override
+        public String toString() {
+            if (kind == Kind.VALUE_MISMATCH) {
+                return kind.message + path + " - " + first.asText() + " vs " + second.asText();
+            }
+            return kind.message + path;
+        }
+    }
+
+    public static class Result {
+        private final List<Difference> differences;
+        private final boolean truncated;
+
+        Result(List<Difference> differences, boolean truncated) {
+            this.differences = Collections.unmodifiableList(differences);
+            this.truncated = truncated;
+        }
+
+        public List<Difference> getDifferences() {
+            return differences;
+        }
+
+        // True when the walk stopped at the cap, so there may be more differences than reported
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public boolean isIdentical() {
+            return differences.isEmpty();
+        }
+    }
+
+    /**
+     * How array elements are paired. With key paths, elements are paired by the value of the first key path they
+     * have; elements without any key, or all elements when matching by content, are paired with an equal element
+     * and the rest in order of appearance. Unpaired elements are reported as missing.
+     */
+    public static final class ArrayMatching {
+        public static final ArrayMatching BY_INDEX = new ArrayMatching(false, Collections.<JsonPointer>emptyList());
+
+        private final boolean unordered;
+        private final List<JsonPointer> keyPaths;
+
+        private ArrayMatching(boolean unordered, List<JsonPointer> keyPaths) {
+            this.unordered = unordered;
+            this.keyPaths = keyPaths;
+        }
+
+        public static ArrayMatching byContent() {
+            return new ArrayMatching(true, Collections.<JsonPointer>emptyList());
+        }
+
+        // Key paths use dots for nesting, e.g. "id", "productCode" or "product.code"
+        public static ArrayMatching byKeys(List<String> keyPaths) {
+            List<JsonPointer> pointers = new ArrayList<>();
+            for (String keyPath : keyPaths) {
+                if (!keyPath.trim().isEmpty()) {
+                    pointers.add(JsonPointer.compile("/" + keyPath.trim().replace("~", "~0").replace("/", "~1").replace('.', '/')));
+                }
+            }
+            return new ArrayMatching(true, pointers);
+        }
+
+        // "index", "content" or "key:id,productCode"
+        public static ArrayMatching parse(String spec) {
+            String mode = spec.trim();
+            if (mode.isEmpty() || mode.equalsIgnoreCase("index")) {
+                return BY_INDEX;
+            }
+            if (mode.equalsIgnoreCase("content")) {
+                return byContent();
+            }
+            if (mode.regionMatches(true, 0, "key:", 0, 4)) {
+                return byKeys(Arrays.asList(mode.substring(4).split(",")));
+            }
+            throw new IllegalArgumentException("Unknown array matching '" + spec + "', expected index, content or key:<path>[,<path>...]");
+        }
+    }
+
+    public static Result compare(JsonNode first, JsonNode second, int maxDifferences) {
+        return compare(first, second, maxDifferences, ArrayMatching.BY_INDEX);
+    }
+
+    public static Result compare(JsonNode first, JsonNode second, int maxDifferences, ArrayMatching arrayMatching) {
+        Walk walk = new Walk(Math.max(1, maxDifferences), arrayMatching);
+        walk.compare(first, second);
+        return new Result(walk.differences, walk.isFull());
+    }
+
+    public static boolean identical(JsonNode first, JsonNode second) {
+        return compare(first, second, 1).isIdentical();
+    }
+
+    private static final class Walk {
+        private final int maxDifferences;
+        private final ArrayMatching arrayMatching;
+        private final List<Difference> differences = new ArrayList<>();
+        // Path stack: keys[i] is the field name, or null for the array index indices[i]
+        private String[] keys = new String[16];
+        private int[] indices = new int[16];
+        private int depth;
+
+        Walk(int maxDifferences, ArrayMatching arrayMatching) {
+            this.maxDifferences = maxDifferences;
+            this.arrayMatching = arrayMatching;
+        }
+
+        boolean isFull() {
+            return differences.size() >= maxDifferences;
+        }
+
+        // Returns false once the cap is reached
+        boolean compare(JsonNode node1, JsonNode node2) {
+            if (node1.getNodeType() != node2.getNodeType()) {
+                return add(Kind.TYPE_MISMATCH, null, node1, node2);
+            }
+            if (node1.isObject()) {
+                return compareObjects(node1, node2);
+            }
+            if (node1.isArray()) {
+                if (arrayMatching.unordered) {
+                    return compareUnordered(node1, node2);
+                }
+                if (node1.size() != node2.size()) {
+                    return add(Kind.ARRAY_SIZE_MISMATCH, null, node1, node2);
+                }
+                for (int i = 0; i < node1.size(); i++) {
+                    push(null, i);
+                    boolean more = compare(node1.get(i), node2.get(i));
+                    depth--;
+                    if (!more) return false;
+                }
+                return true;
+            }
+            // Equal nodes need no text; asText() is only used when the nodes differ, e.g. 1 vs 1.0
+            if (!node1.equals(node2) && !node1.asText().equals(node2.asText())) {
+                return add(Kind.VALUE_MISMATCH, null, node1, node2);
+            }
+            return true;
+        }
+
+        private boolean compareObjects(JsonNode node1, JsonNode node2) {
+            int matched = 0;
+            Iterator<Map.Entry<String, JsonNode>> fields = node1.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                JsonNode other = node2.get(entry.getKey());
+                if (other == null) {
+                    if (!add(Kind.MISSING_IN_SECOND, entry.getKey(), entry.getValue(), null)) return false;
+                    continue;
+                }
+                matched++;
+                push(entry.getKey(), 0);
+                boolean more = compare(entry.getValue(), other);
+                depth--;
+                if (!more) return false;
+            }
+            // Every key of node2 was matched, so none can be missing in node1
+            if (matched == node2.size()) {
+                return true;
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields2 = node2.fields();
+            while (fields2.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields2.next();
+                if (node1.get(entry.getKey()) == null && !add(Kind.MISSING_IN_FIRST, entry.getKey(), null, entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean compareUnordered(JsonNode array1, JsonNode array2) {
+            int size1 = array1.size();
+            int size2 = array2.size();
+            int[] partners = new int[size1];
+            Arrays.fill(partners, -1);
+            boolean[] paired = new boolean[size2];
+            boolean[] keyed1 = new boolean[size1];
+            boolean[] keyed2 = new boolean[size2];
+
+            // 1. Elements with a key are paired by key only
+            if (!arrayMatching.keyPaths.isEmpty()) {
+                ElementIndex byKey = new ElementIndex(size2);
+                for (int j = size2 - 1; j >= 0; j--) {
+                    Object key = keyOf(array2.get(j));
+                    keyed2[j] = key != null;
+                    if (key != null) byKey.add(key, j);
+                }
+                for (int i = 0; i < size1; i++) {
+                    Object key = keyOf(array1.get(i));
+                    keyed1[i] = key != null;
+                    if (key != null) partners[i] = byKey.take(key, paired);
+                }
+            }
+
+            // 2. Other elements are paired with an equal element; ObjectNode equality ignores field order
+            ElementIndex byContent = new ElementIndex(size2);
+            for (int j = size2 - 1; j >= 0; j--) {
+                if (!keyed2[j]) byContent.add(array2.get(j), j);
+            }
+            for (int i = 0; i < size1; i++) {
+                if (!keyed1[i]) partners[i] = byContent.take(array1.get(i), paired);
+            }
+
+            // 3. What is left is paired in order of appearance, so a changed element still gets a detailed diff
+            int next = 0;
+            for (int i = 0; i < size1; i++) {
+                if (keyed1[i] || partners[i] >= 0) continue;
+                while (next < size2 && (keyed2[next] || paired[next])) next++;
+                if (next == size2) break;
+                partners[i] = next;
+                paired[next] = true;
+            }
+
+            for (int i = 0; i < size1; i++) {
+                push(null, i);
+                boolean more = partners[i] >= 0
+                        ? compare(array1.get(i), array2.get(partners[i]))
+                        : add(Kind.MISSING_ELEMENT_IN_SECOND, null, array1.get(i), null);
+                depth--;
+                if (!more) return false;
+            }
+            for (int j = 0; j < size2; j++) {
+                if (paired[j]) continue;
+                push(null, j);
+                boolean more = add(Kind.MISSING_ELEMENT_IN_FIRST, null, null, array2.get(j));
+                depth--;
+                if (!more) return false;
+            }
+            return true;
+        }
+
+        // Index of the first key path present in the element together with its value, or null
+        private Object keyOf(JsonNode element) {
+            List<JsonPointer> keyPaths = arrayMatching.keyPaths;
+            for (int k = 0; k < keyPaths.size(); k++) {
+                JsonNode key = element.at(keyPaths.get(k));
+                if (!key.isMissingNode()) {
+                    return new AbstractMap.SimpleImmutableEntry<>(k, key);
+                }
+            }
+            return null;
+        }
+
+        private void push(String key, int index) {
+            if (depth == keys.length) {
+                keys = Arrays.copyOf(keys, depth * 2);
+                indices = Arrays.copyOf(indices, depth * 2);
+            }
+            keys[depth] = key;
+            indices[depth] = index;
+            depth++;
+        }
+
+        private boolean add(Kind kind, String lastKey, JsonNode first, JsonNode second) {
+            differences.add(new Difference(kind, path(lastKey), first, second));
+            return !isFull();
+        }
+
+        // Only rendered for differences: ".a.b[2].c"
+        private String path(String lastKey) {
+            StringBuilder path = new StringBuilder();
+            for (int i = 0; i < depth; i++) {
+                if (keys[i] != null) {
+                    path.append('.').append(keys[i]);
+                } else {
+                    path.append('[').append(indices[i]).append(']');
+                }
+            }
+            if (lastKey != null) {
+                path.append('.').append(lastKey);
+            }
+            return path.toString();
+        }
+    }
+
+    // Multimap from element key to the not yet paired element indices of the second array, in ascending order
+    private static final class ElementIndex {
+        private final Map<Object, Integer> heads = new HashMap<>();
+        private final int[] nextIndex;
+
+        ElementIndex(int size) {
+            nextIndex = new int[size];
+        }
+
+        // Indices must be added in descending order
+        void add(Object key, int index) {
+            Integer head = heads.put(key, index);
+            nextIndex[index] = head != null ? head : -1;
+        }
+
+        // Returns and marks the first unpaired index for the key, or -1
+        int take(Object key, boolean[] paired) {
+            Integer head = heads.get(key);
+            int index = head != null ? head : -1;
+            while (index >= 0 && paired[index]) {
+                index = nextIndex[index];
+            }
+            if (index < 0) {
+                return -1;
+            }
+            paired[index] = true;
+            heads.put(key, nextIndex[index]);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded LRU cache of minified JSON, keyed by the {@link ContentFingerprint} of the raw text, so a body that
+ * repeats across requests and collections is parsed and re-serialized once. Texts that are not valid JSON are
+ * cached as such, so they do not throw again. All callers share one thread-safe ObjectMapper.
+ *
+ * Limits: -DjsonCache.maxEntries (default 10000) and -DjsonCache.maxChars (default 32M chars of cached output).
+ */
+public final class JsonParseCache {
+    public static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonParseCache SHARED = new JsonParseCache(
+            Integer.getInteger("jsonCache.maxEntries", 10000), Long.getLong("jsonCache.maxChars", 32L << 20));
+
+    private final int maxEntries;
+    private final long maxChars;
+    private final Map<ContentFingerprint, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedChars;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public JsonParseCache(int maxEntries, long maxChars) {
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+    }
+
+    public static JsonParseCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Minified form of {@code json}, or the text itself when it is not valid JSON.
+     */
+    public String minify(String json) {
+        ContentFingerprint key = ContentFingerprint.of(json);
+        synchronized (this) {
+            String cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+
+        String minified = format(json);
+        // Entries that alone exceed the budget are not cached
+        if (minified.length() <= maxChars) {
+            synchronized (this) {
+                String previous = entries.put(key, minified);
+                cachedChars += minified.length() - (previous != null ? previous.length() : 0);
+                evict();
+            }
+        }
+        return minified;
+    }
+
+    private static String format(String json) {
+        try {
+            Object jsonObj = MAPPER.readValue(json, Object.class);
+            return MAPPER.writeValueAsString(jsonObj);
+        } catch (Exception e) {
+            return json; // Return original if formatting fails
+        }
+    }
+
+    private void evict() {
+        Iterator<String> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxEntries || cachedChars > maxChars)) {
+            cachedChars -= eldest.next().length();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized String stats() {
+        long lookups = hits + misses;
+        return String.format("JSON cache: %d lookups, %d hits (%.1f%%), %d misses, %d evictions, %d entries",
+                lookups, hits, lookups == 0 ? 0.0 : hits * 100.0 / lookups, misses, evictions, entries.size());
+    }
+}
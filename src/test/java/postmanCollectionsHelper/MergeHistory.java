@@ -0,0 +1,239 @@
+package postmanCollectionsHelper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Request fingerprints merged by earlier runs, so a nightly merge over a growing collections folder only emits the
+ * requests that are new since the last run.
+ *
+ * Two files live in the history directory: a memory-mapped {@link BloomFilterFile} checked first, and the exact
+ * fingerprints sorted on disk. Most new requests are answered by the filter alone; only possible hits are looked up
+ * in the sorted file, through a small in-memory index of its blocks. Nothing but that index is loaded up front.
+ * The file names carry the {@link ContentFingerprint} version, so a history hashed differently is never mixed in.
+ *
+ * Enabled with -Dmerge.history=&lt;dir&gt;; -Dmerge.history.fpp (default 0.01) and -Dmerge.history.capacity
+ * (default 1000000) size a new filter. A filter that has outgrown its capacity is rebuilt from the sorted file.
+ */
+public final class MergeHistory implements Closeable {
+    private static final int RECORD_SIZE = 16;
+    private static final int BLOCK_RECORDS = 256;
+    // Bump when ContentFingerprint changes; the requests of an older history are merged once more
+    private static final String FILE_NAME = "requests.v2";
+    private static final Comparator<ContentFingerprint> ORDER =
+            Comparator.comparingLong(ContentFingerprint::getHigh).thenComparingLong(ContentFingerprint::getLow);
+
+    private final Path sortedPath;
+    private final BloomFilterFile bloom;
+    private final FileChannel sorted;
+    private final long recordCount;
+    private final long[] blockHigh;
+    private final long[] blockLow;
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_RECORDS * RECORD_SIZE);
+    private final List<ContentFingerprint> added = new ArrayList<>();
+    private long bloomMisses;
+    private long falsePositives;
+    private long seen;
+
+    private MergeHistory(Path sortedPath, BloomFilterFile bloom, FileChannel sorted, long recordCount) throws IOException {
+        this.sortedPath = sortedPath;
+        this.bloom = bloom;
+        this.sorted = sorted;
+        this.recordCount = recordCount;
+        int blocks = (int) ((recordCount + BLOCK_RECORDS - 1) / BLOCK_RECORDS);
+        blockHigh = new long[blocks];
+        blockLow = new long[blocks];
+        ByteBuffer first = ByteBuffer.allocate(RECORD_SIZE);
+        for (int b = 0; b < blocks; b++) {
+            first.clear();
+            readFully(first, (long) b * BLOCK_RECORDS * RECORD_SIZE);
+            blockHigh[b] = first.getLong(0);
+            blockLow[b] = first.getLong(8);
+        }
+    }
+
+    /**
+     * History from -Dmerge.history, or a disabled one that treats every request as new.
+     */
+    public static MergeHistory fromSystemProperties() throws IOException {
+        String dir = System.getProperty("merge.history");
+        if (dir == null || dir.trim().isEmpty()) {
+            return new MergeHistory(null, null, null, 0);
+        }
+        return open(Paths.get(dir), Long.getLong("merge.history.capacity", 1_000_000L),
+                Double.parseDouble(System.getProperty("merge.history.fpp", "0.01")));
+    }
+
+    public static MergeHistory open(Path dir, long capacity, double falsePositiveRate) throws IOException {
+        Files.createDirectories(dir);
+        Path sortedPath = dir.resolve(FILE_NAME + ".fp");
+        Path bloomPath = dir.resolve(FILE_NAME + ".bloom");
+        if (!Files.exists(sortedPath)) {
+            Files.createFile(sortedPath);
+        }
+        long recordCount = Files.size(sortedPath) / RECORD_SIZE;
+
+        boolean rebuild = !Files.exists(bloomPath);
+        BloomFilterFile bloom = BloomFilterFile.open(bloomPath, capacity, falsePositiveRate);
+        if (bloom.getCapacity() < recordCount) {
+            bloom.close();
+            Files.delete(bloomPath);
+            bloom = BloomFilterFile.open(bloomPath, Math.max(capacity, recordCount * 2), falsePositiveRate);
+            rebuild = true;
+        }
+        if (rebuild && recordCount > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sortedPath)))) {
+                for (long i = 0; i < recordCount; i++) {
+                    bloom.put(new ContentFingerprint(in.readLong(), in.readLong()));
+                }
+            }
+        }
+        return new MergeHistory(sortedPath, bloom, FileChannel.open(sortedPath, StandardOpenOption.READ), recordCount);
+    }
+
+    /**
+     * Records a request merged in this run. Returns false, without recording, if an earlier run already merged it.
+     * Callers dedupe within the run themselves, so each fingerprint is passed at most once.
+     */
+    public boolean add(ContentFingerprint fingerprint) throws IOException {
+        if (bloom == null) {
+            return true;
+        }
+        if (!bloom.mightContain(fingerprint)) {
+            bloomMisses++;
+        } else if (containsOnDisk(fingerprint)) {
+            seen++;
+            return false;
+        } else {
+            falsePositives++;
+        }
+        bloom.put(fingerprint);
+        added.add(fingerprint);
+        return true;
+    }
+
+    private boolean containsOnDisk(ContentFingerprint fingerprint) throws IOException {
+        // Last block whose first record is <= fingerprint
+        int lo = 0;
+        int hi = blockHigh.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(blockHigh[mid], blockLow[mid], fingerprint) <= 0) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return false;
+        }
+        int records = (int) Math.min(BLOCK_RECORDS, recordCount - (long) found * BLOCK_RECORDS);
+        block.clear();
+        block.limit(records * RECORD_SIZE);
+        readFully(block, (long) found * BLOCK_RECORDS * RECORD_SIZE);
+
+        lo = 0;
+        hi = records - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(block.getLong(mid * RECORD_SIZE), block.getLong(mid * RECORD_SIZE + 8), fingerprint);
+            if (cmp == 0) {
+                return true;
+            } else if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    private static int compare(long high, long low, ContentFingerprint fingerprint) {
+        int cmp = Long.compare(high, fingerprint.getHigh());
+        return cmp != 0 ? cmp : Long.compare(low, fingerprint.getLow());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (sorted.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated merge history: " + sortedPath);
+            }
+        }
+    }
+
+    /**
+     * Persists the fingerprints added in this run and closes the history. Call it only once the merged output is
+     * saved; without it the next run sees this run's requests as new again.
+     */
+    public void commit() throws IOException {
+        if (bloom == null || added.isEmpty()) {
+            close();
+            return;
+        }
+        added.sort(ORDER);
+        sorted.close();
+        Path temp = sortedPath.resolveSibling(sortedPath.getFileName() + ".tmp");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sortedPath)));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            // Merge the new fingerprints into the existing sorted run
+            int next = 0;
+            for (long i = 0; i < recordCount; i++) {
+                long high = in.readLong();
+                long low = in.readLong();
+                while (next < added.size() && compare(high, low, added.get(next)) > 0) {
+                    write(out, added.get(next++));
+                }
+                out.writeLong(high);
+                out.writeLong(low);
+            }
+            while (next < added.size()) {
+                write(out, added.get(next++));
+            }
+        }
+        Files.move(temp, sortedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        added.clear();
+        close();
+    }
+
+    private static void write(DataOutputStream out, ContentFingerprint fingerprint) throws IOException {
+        out.writeLong(fingerprint.getHigh());
+        out.writeLong(fingerprint.getLow());
+    }
+
+    public boolean isEnabled() {
+        return bloom != null;
+    }
+
+    public String stats() {
+        if (bloom == null) {
+            return "Merge history: disabled";
+        }
+        return String.format("Merge history: %d known, %d new (%d ruled out by the filter, %d false positives), "
+                        + "filter ~%.4f%% false-positive rate at %d insertions",
+                seen, bloomMisses + falsePositives, bloomMisses, falsePositives,
+                bloom.expectedFalsePositiveRate() * 100, bloom.getInsertions());
+    }
+
+    /**
+     * Releases the files without persisting this run's fingerprints; the filter bits already set stay, which only
+     * costs an exact lookup for those requests next time.
+     */
+    @Override
+    public void close() throws IOException {
+        if (bloom != null) {
+            sorted.close();
+            bloom.close();
+        }
+    }
+}
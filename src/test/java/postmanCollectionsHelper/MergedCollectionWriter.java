@@ -0,0 +1,142 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes a merged Postman collection to disk with a {@link JsonGenerator} while items pass the dedupe, instead of
+ * assembling the output tree first. Items are copied token by token as they were read; only the chain of open
+ * folders is kept in memory. A folder is written when its first item is, so folders without added requests are
+ * left out.
+ */
+public class MergedCollectionWriter implements Closeable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static class Folder {
+        final ObjectNode node;
+        boolean written;
+
+        Folder(ObjectNode node) {
+            this.node = node;
+        }
+    }
+
+    private final JsonGenerator generator;
+    private final Deque<Folder> folders = new ArrayDeque<>();
+
+    public MergedCollectionWriter(File file, String collectionName) throws IOException {
+        generator = MAPPER.getFactory().createGenerator(file, JsonEncoding.UTF8);
+        generator.setPrettyPrinter(new DefaultPrettyPrinter());
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("info");
+        generator.writeStringField("_postman_id", UUID.randomUUID().toString());
+        generator.writeStringField("name", collectionName);
+        generator.writeStringField("schema", "https://schema.getpostman.com/json/collection/v2.1.0/collection.json");
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("item");
+    }
+
+    /**
+     * Opens a folder; it is written only once an item is added to it or to one of its subfolders.
+     */
+    public void startFolder(ObjectNode folder) {
+        folders.push(new Folder(folder));
+    }
+
+    /**
+     * Closes the innermost folder. Returns true if it was written, i.e. it holds at least one item.
+     */
+    public boolean endFolder() throws IOException {
+        Folder folder = folders.pop();
+        if (!folder.written) {
+            return false;
+        }
+        generator.writeEndArray();
+        // Fields after "item", e.g. event or auth, are only known once the folder ends
+        writeFields(folder.node, false);
+        generator.writeEndObject();
+        return true;
+    }
+
+    /**
+     * Closes the folders left open by a collection that could not be read to the end.
+     */
+    public void endFolders() throws IOException {
+        while (!folders.isEmpty()) {
+            endFolder();
+        }
+    }
+
+    public void writeItem(PostmanItem item) throws IOException {
+        writeOpenFolders();
+        item.writeTo(generator);
+    }
+
+    /**
+     * Copies the next item from a parser positioned before it, token by token.
+     */
+    public void copyItem(JsonParser parser) throws IOException {
+        writeOpenFolders();
+        parser.nextToken();
+        generator.copyCurrentStructure(parser);
+    }
+
+    // Writes the folders on the stack that were not written yet, outermost first
+    private void writeOpenFolders() throws IOException {
+        Iterator<Folder> outermostFirst = folders.descendingIterator();
+        while (outermostFirst.hasNext()) {
+            Folder folder = outermostFirst.next();
+            if (!folder.written) {
+                generator.writeStartObject();
+                writeFields(folder.node, true);
+                generator.writeArrayFieldStart("item");
+                folder.written = true;
+            }
+        }
+    }
+
+    // Writes the folder fields before or after its "item" placeholder
+    private void writeFields(ObjectNode folder, boolean beforeItem) throws IOException {
+        boolean afterItem = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = folder.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if ("item".equals(field.getKey())) {
+                afterItem = true;
+            } else if (afterItem != beforeItem) {
+                generator.writeFieldName(field.getKey());
+                MAPPER.writeTree(generator, field.getValue());
+            }
+        }
+    }
+
+    /**
+     * Ends the collection and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            endFolders();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } finally {
+            generator.close();
+        }
+    }
+}
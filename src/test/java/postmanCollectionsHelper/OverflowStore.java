@@ -0,0 +1,209 @@
+package postmanCollectionsHelper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps texts that do not fit in an Excel cell (32 767 chars) in one append-only, memory-mapped file next to the
+ * workbook, keyed by {@link ContentFingerprint}. The cell gets a preview followed by a marker naming the file and
+ * the hash, so nothing is cut off and a body that repeats is stored once. Texts are encoded straight from the
+ * String into the mapped file, without an intermediate byte[] or substring.
+ *
+ * File layout: magic, version, end of the last complete record (long); then records of fingerprint (two longs),
+ * byte length, char length and UTF-8 bytes. The file is created on the first overflowing text. Thread-safe; once
+ * closed, nothing more can be stored.
+ */
+public class OverflowStore implements Closeable {
+    public static final int MAX_CELL_LENGTH = 32767;
+
+    private static final int MAGIC = 0x4f56464c; // "OVFL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 24;
+    private static final long REGION_SIZE = 8L << 20;
+    private static final Pattern MARKER = Pattern.compile("\\.\\.\\. \\[ truncated, \\d+ chars in .+ #([0-9a-f]{32}) ]$");
+
+    private final Path path;
+    private final Map<ContentFingerprint, Long> offsets = new HashMap<>();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long end;
+    private long stored;
+    private boolean used;
+    private boolean closed;
+
+    public OverflowStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Empty store next to a workbook that is about to be written, e.g. "report.xlsx.overflow". The store of an
+     * earlier workbook with the same name is deleted along with the cells that referred to it.
+     */
+    public static OverflowStore forWorkbook(String workbookPath) throws IOException {
+        Path path = Paths.get(workbookPath + ".overflow");
+        Files.deleteIfExists(path);
+        return new OverflowStore(path);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * The text itself if it has at most {@code maxChars} chars, otherwise a preview of it followed by the marker
+     * of its stored copy. The result always fits in a cell.
+     */
+    public String cellValue(String text, int maxChars) throws IOException {
+        if (text == null || text.length() <= maxChars) {
+            return text;
+        }
+        ContentFingerprint fingerprint = ContentFingerprint.of(text);
+        put(fingerprint, text);
+        String marker = "... [ truncated, " + text.length() + " chars in " + path.getFileName() + " #" + fingerprint + " ]";
+        int preview = Math.min(maxChars, MAX_CELL_LENGTH - marker.length());
+        if (preview > 0 && Character.isHighSurrogate(text.charAt(preview - 1))) {
+            preview--; // Do not split a surrogate pair
+        }
+        return new StringBuilder(preview + marker.length()).append(text, 0, preview).append(marker).toString();
+    }
+
+    /**
+     * Hash of the stored text a cell value refers to, or null if the value was not cut.
+     */
+    public static ContentFingerprint referenceIn(String cellValue) {
+        Matcher matcher = MARKER.matcher(cellValue);
+        return matcher.find() ? ContentFingerprint.parse(matcher.group(1)) : null;
+    }
+
+    private synchronized void put(ContentFingerprint fingerprint, String text) throws IOException {
+        open();
+        if (offsets.containsKey(fingerprint)) {
+            return;
+        }
+        // UTF-8 needs at most 3 bytes per char
+        long maxRecord = RECORD_HEADER_SIZE + 3L * text.length();
+        if (end + maxRecord > regionStart + region.capacity()) {
+            regionStart = end;
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(REGION_SIZE, maxRecord));
+        }
+        int recordStart = (int) (end - regionStart);
+        region.position(recordStart + RECORD_HEADER_SIZE);
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(text), region, true);
+        encoder.flush(region);
+        int byteLength = region.position() - recordStart - RECORD_HEADER_SIZE;
+        region.putLong(recordStart, fingerprint.getHigh())
+                .putLong(recordStart + 8, fingerprint.getLow())
+                .putInt(recordStart + 16, byteLength)
+                .putInt(recordStart + 20, text.length());
+
+        offsets.put(fingerprint, end);
+        end += RECORD_HEADER_SIZE + byteLength;
+        header.putLong(8, end);
+        stored += byteLength;
+    }
+
+    /**
+     * The stored text with the given hash, or null if there is none.
+     */
+    public synchronized String read(ContentFingerprint fingerprint) throws IOException {
+        open();
+        Long offset = offsets.get(fingerprint);
+        if (offset == null) {
+            return null;
+        }
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(recordHeader, offset);
+        ByteBuffer bytes = ByteBuffer.allocate(recordHeader.getInt(16));
+        readFully(bytes, offset + RECORD_HEADER_SIZE);
+        bytes.flip();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        return decoder.decode(bytes).toString();
+    }
+
+    // Opens or creates the file and indexes the records already in it
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        if (closed) {
+            throw new IOException("Overflow store is closed: " + path);
+        }
+        used = true;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (created) {
+            header.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, HEADER_SIZE);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not an overflow store: " + path);
+        }
+        end = header.getLong(8);
+
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        for (long offset = HEADER_SIZE; offset < end; offset += RECORD_HEADER_SIZE + recordHeader.getInt(16)) {
+            recordHeader.clear();
+            readFully(recordHeader, offset);
+            offsets.put(new ContentFingerprint(recordHeader.getLong(0), recordHeader.getLong(8)), offset);
+        }
+        regionStart = end;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated overflow store: " + path);
+            }
+        }
+    }
+
+    public synchronized String stats() {
+        return String.format("Overflow store %s: %d texts, %d bytes written this run", path, offsets.size(), stored);
+    }
+
+    /**
+     * Whether the file was opened, i.e. some text overflowed or was read back.
+     */
+    public synchronized boolean isUsed() {
+        return used;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (channel == null) {
+            return;
+        }
+        region.force();
+        header.force();
+        try {
+            // The mapped tail past the last record is unused; Windows refuses to truncate a mapped file
+            channel.truncate(end);
+        } catch (IOException ignored) {
+        }
+        channel.close();
+        channel = null;
+    }
+}
@@ -0,0 +1,190 @@
+package postmanCollectionsHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Reads files on a fixed pool sized to the available cores and hands their items to a single writer on the
+ * calling thread in the original file order, so output is identical to a serial run. Items travel in batches
+ * through a bounded queue per file, so a reader that runs ahead of the writer blocks instead of holding its whole
+ * file in memory.
+ */
+public class ParallelFileProcessor {
+    private static final int BATCH_ITEMS = 256;
+    // Batches a reader may run ahead of the writer
+    private static final int QUEUE_BATCHES = 16;
+
+    /**
+     * Runs on a pool thread and passes the items of one file to {@code items} in order.
+     */
+    public interface FileReader<T> {
+        void read(File file, Consumer<T> items) throws IOException;
+    }
+
+    public interface ItemWriter<T> {
+        void write(T item) throws IOException;
+    }
+
+    /**
+     * The items of one file, taken from its queue while the writer consumes them.
+     */
+    public interface FileItems<T> {
+        void forEach(ItemWriter<T> writer) throws IOException;
+    }
+
+    public interface ResultWriter<T> {
+        void write(File file, T result) throws IOException;
+    }
+
+    public static int defaultThreads() {
+        return Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+    }
+
+    public static <T> void process(File[] files, FileReader<T> reader, ResultWriter<FileItems<T>> writer) throws IOException {
+        process(files, defaultThreads(), reader, writer);
+    }
+
+    public static <T> void process(File[] files, int threads, FileReader<T> reader, ResultWriter<FileItems<T>> writer) throws IOException {
+        int poolSize = Math.max(1, Math.min(threads, files.length));
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try {
+            // Files start in order, so the file the writer waits for is always running or done
+            List<BlockingQueue<Batch<T>>> queues = new ArrayList<>();
+            for (File file : files) {
+                BlockingQueue<Batch<T>> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+                queues.add(queue);
+                executor.execute(() -> readFile(file, reader, queue));
+            }
+
+            for (int i = 0; i < files.length; i++) {
+                QueuedItems<T> items = new QueuedItems<>(queues.get(i));
+                writer.write(files[i], items);
+                // Whatever the writer left unread, so the reader is not kept waiting
+                items.forEach(item -> { });
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // A batch of items, the end of a file (no items) or the error that stopped its reader
+    private static class Batch<T> {
+        final List<T> items;
+        final Throwable error;
+
+        Batch(List<T> items, Throwable error) {
+            this.items = items;
+            this.error = error;
+        }
+    }
+
+    // Runs on a pool thread
+    private static <T> void readFile(File file, FileReader<T> reader, BlockingQueue<Batch<T>> queue) {
+        try {
+            Batcher<T> batcher = new Batcher<>(queue);
+            reader.read(file, batcher);
+            batcher.flush();
+            put(queue, new Batch<>(null, null));
+        } catch (Throwable e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return; // The writer gave up; nobody is waiting for this file any more
+            }
+            try {
+                queue.put(new Batch<>(null, e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Collects the items of a file into batches for the writer
+    private static class Batcher<T> implements Consumer<T> {
+        private final BlockingQueue<Batch<T>> queue;
+        private List<T> items = new ArrayList<>(BATCH_ITEMS);
+
+        Batcher(BlockingQueue<Batch<T>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void accept(T item) {
+            items.add(item);
+            if (items.size() == BATCH_ITEMS) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!items.isEmpty()) {
+                put(queue, new Batch<>(items, null));
+                items = new ArrayList<>(BATCH_ITEMS);
+            }
+        }
+    }
+
+    private static <T> void put(BlockingQueue<Batch<T>> queue, Batch<T> batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while handing items to the writer"));
+        }
+    }
+
+    private static class QueuedItems<T> implements FileItems<T> {
+        private final BlockingQueue<Batch<T>> queue;
+        private boolean done;
+
+        QueuedItems(BlockingQueue<Batch<T>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void forEach(ItemWriter<T> writer) throws IOException {
+            while (!done) {
+                Batch<T> batch = take();
+                if (batch.items == null) {
+                    done = true;
+                    if (batch.error != null) {
+                        rethrow(batch.error);
+                    }
+                } else {
+                    for (T item : batch.items) {
+                        writer.write(item);
+                    }
+                }
+            }
+        }
+
+        private Batch<T> take() throws InterruptedIOException {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for file items");
+            }
+        }
+    }
+
+    private static void rethrow(Throwable cause) throws IOException {
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IOException(cause);
+    }
+}
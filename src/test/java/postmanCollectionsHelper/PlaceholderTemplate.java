@@ -0,0 +1,132 @@
+package postmanCollectionsHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A cURL/URL text with {{var}} placeholders, split once into literal and variable segments.
+ * Rendering walks the segments in a single pass instead of calling String.replace once per property,
+ * and compiled templates are cached so rows with the same text are not parsed again. The cache is keyed by the
+ * {@link ContentFingerprint} of the text and bounded by the chars it holds; texts longer than
+ * {@value #MAX_CACHED_TEXT_CHARS} chars, such as cURL commands with large bodies, are parsed every time.
+ *
+ * Placeholders without a value are left as they are and can be collected by the caller.
+ */
+public final class PlaceholderTemplate {
+    private static final int MAX_CACHED_TEMPLATES = 10000;
+    private static final int MAX_CACHED_TEXT_CHARS = 64 << 10;
+    private static final long MAX_CACHED_CHARS = 32L << 20;
+    private static final int MAX_REUSED_BUFFER = 1 << 20;
+
+    // Access ordered, eldest first
+    private static final Map<ContentFingerprint, PlaceholderTemplate> CACHE = new LinkedHashMap<>(256, 0.75f, true);
+    private static long cachedChars;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String text;
+    // literals.length == variables.length + 1, rendered as literal[0] var[0] literal[1] ... literal[n]
+    private final String[] literals;
+    private final String[] variables;
+
+    private PlaceholderTemplate(String text, String[] literals, String[] variables) {
+        this.text = text;
+        this.literals = literals;
+        this.variables = variables;
+    }
+
+    public static PlaceholderTemplate compile(String text) {
+        if (text.length() > MAX_CACHED_TEXT_CHARS) {
+            return parse(text);
+        }
+        ContentFingerprint key = ContentFingerprint.of(text);
+        synchronized (CACHE) {
+            PlaceholderTemplate cached = CACHE.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PlaceholderTemplate template = parse(text);
+        synchronized (CACHE) {
+            PlaceholderTemplate previous = CACHE.put(key, template);
+            cachedChars += text.length() - (previous == null ? 0 : previous.text.length());
+            Iterator<PlaceholderTemplate> eldest = CACHE.values().iterator();
+            while (CACHE.size() > MAX_CACHED_TEMPLATES || cachedChars > MAX_CACHED_CHARS) {
+                cachedChars -= eldest.next().text.length();
+                eldest.remove();
+            }
+        }
+        return template;
+    }
+
+    private static PlaceholderTemplate parse(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int literalStart = 0;
+        int open = text.indexOf("{{");
+        while (open >= 0) {
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            literals.add(text.substring(literalStart, open));
+            variables.add(text.substring(open + 2, close));
+            literalStart = close + 2;
+            open = text.indexOf("{{", literalStart);
+        }
+        literals.add(text.substring(literalStart));
+        return new PlaceholderTemplate(text, literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    public String render(Function<String, String> values) {
+        return render(values, null);
+    }
+
+    /**
+     * Renders the template; names of placeholders without a value are added to {@code unresolved} when it is not null.
+     */
+    public String render(Function<String, String> values, Collection<String> unresolved) {
+        if (variables.length == 0) {
+            return text;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        String rendered = renderTo(buffer, values, unresolved).toString();
+        if (buffer.capacity() > MAX_REUSED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    public StringBuilder renderTo(StringBuilder out, Function<String, String> values, Collection<String> unresolved) {
+        for (int i = 0; i < variables.length; i++) {
+            out.append(literals[i]);
+            String value = values.apply(variables[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append("{{").append(variables[i]).append("}}");
+                if (unresolved != null) {
+                    unresolved.add(variables[i]);
+                }
+            }
+        }
+        return out.append(literals[variables.length]);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -1,25 +1,35 @@
 package postmanCollectionsHelper;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+import postmanCollectionsHelper.PostmanCollectionReader.RecordingVisitor;
+import postmanCollectionsHelper.PostmanCollectionReader.RequestLine;
 
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public class PostmanCollectionFilteredMerger {
+    private static final Logger LOG = LogManager.getLogger(PostmanCollectionFilteredMerger.class);
+    // Fields that make a request unique, -Dfingerprint.fields (default method,url)
+    private static final RequestFingerprinter FINGERPRINTER = RequestFingerprinter.fromSystemProperties();
     private static final List<String> FILTER_DOMAINS = Arrays.asList("{{baseUrl}}", "{{base_url}}", "mygptest.grameenphone.com", "mygp-dev.");
-    private static int totalProcessed = 0;
-    private static int totalMatchingFilter = 0;
-    private static int totalAdded = 0;
-    private static int totalSkippedDuplicates = 0;
+    private static final boolean PARALLEL = Boolean.getBoolean("parallel");
+    private static final LongAdder totalProcessed = RunMetrics.shared().counter("requests.processed");
+    private static final LongAdder totalMatchingFilter = RunMetrics.shared().counter("requests.matching_filter");
+    private static final LongAdder totalAdded = RunMetrics.shared().counter("requests.added");
+    private static final LongAdder totalSkippedHistory = RunMetrics.shared().counter("requests.skipped.history");
+    private static final LongAdder totalSkippedDuplicates = RunMetrics.shared().counter("requests.skipped.duplicate");
 
     public static void main(String[] args) {
         String inputDir = "/Users/bs00880/myworkspace/collections";
         String outputDir = "/Users/bs00880/myworkspace/output";
-        System.out.println("* PostmanCollectionFilteredMerger* -> Execution Started");
+        LOG.info("* PostmanCollectionFilteredMerger* -> Execution Started");
         File dir = new File(inputDir);
         File outputDirectory = new File(outputDir);
         if (!outputDirectory.exists()) {
@@ -31,94 +41,146 @@ public class PostmanCollectionFilteredMerger {
         File finalOutputDir = new File(outputDirectory, dynamicFolderName);
         finalOutputDir.mkdirs();
 
-        ObjectMapper objectMapper = new ObjectMapper();
         File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
 
-        Set<String> processedRequests = new HashSet<>();
-        ArrayNode mergedFolders = objectMapper.createArrayNode();
+        FingerprintSet processedRequests = new FingerprintSet();
+        File outputFile = new File(finalOutputDir, "filtered_merged_collection.json");
+        MergeHistory history;
+        MergedCollectionWriter writer;
+        try {
+            history = MergeHistory.fromSystemProperties();
+            // Requests are written as they pass the filter and dedupe, so the merged collection is never held in memory
+            writer = new MergedCollectionWriter(outputFile, "Filtered Merged API Collection");
+        } catch (IOException e) {
+            LOG.error("❌ Error opening merge output: {}", e.getMessage());
+            return;
+        }
 
         if (files != null) {
-            System.out.println("Processing files from directory: " + inputDir);
-            for (File file : files) {
-                try {
-                    System.out.println("📂 Processing file: " + file.getName());
-                    JsonNode collection = objectMapper.readTree(file);
-                    ArrayNode items = (ArrayNode) collection.get("item");
-
-                    if (items != null) {
-                        for (JsonNode item : items) {
-                            processItem(item, processedRequests, mergedFolders, "");
+            LOG.info("Processing files from directory: {}", inputDir);
+            try {
+                if (PARALLEL) {
+                    // Parse files concurrently and replay them through the dedupe in the serial file order
+                    ParallelFileProcessor.process(files, PostmanCollectionFilteredMerger::recordCollection, (file, events) -> {
+                        LOG.info("📂 Processing file: {}", file.getName());
+                        MergeVisitor visitor = new MergeVisitor(processedRequests, history, writer);
+                        events.forEach(event -> event.replayTo(visitor));
+                        writer.endFolders();
+                    });
+                } else {
+                    for (File file : files) {
+                        try {
+                            LOG.info("📂 Processing file: {}", file.getName());
+                            PostmanCollectionReader.read(file, new MergeVisitor(processedRequests, history, writer));
+                        } catch (IOException e) {
+                            LOG.error("❌ Error reading file: {}", file.getName(), e);
                         }
+                        // A collection that failed halfway leaves its folders open
+                        writer.endFolders();
                     }
-                } catch (IOException e) {
-                    System.err.println("❌ Error reading file: " + file.getName());
-                    e.printStackTrace();
                 }
+            } catch (IOException e) {
+                LOG.error("❌ Error processing collections: {}", e.getMessage(), e);
             }
         }
 
-        System.out.println("\n===== ✅ FILTERED MERGE SUMMARY ✅ =====");
-        System.out.println("📌 Total Requests Processed: " + totalProcessed);
-        System.out.println("🔍 Total Requests Matching Filter: " + totalMatchingFilter);
-        System.out.println("✅ Total Requests Added to Filtered Merged Collection: " + totalAdded);
-        System.out.println("🚫 Total Requests Skipped (Duplicates): " + totalSkippedDuplicates);
+        LOG.info("\n===== ✅ FILTERED MERGE SUMMARY ✅ =====");
+        LOG.info("📌 Total Requests Processed: {}", totalProcessed.sum());
+        LOG.info("🔍 Total Requests Matching Filter: {}", totalMatchingFilter.sum());
+        LOG.info("✅ Total Requests Added to Filtered Merged Collection: {}", totalAdded.sum());
+        LOG.info("🚫 Total Requests Skipped (Duplicates): {}", totalSkippedDuplicates.sum());
+        if (history.isEnabled()) {
+            LOG.info("⏭️ Total Requests Skipped (Merged in Earlier Runs): {}", totalSkippedHistory.sum());
+            LOG.info(history.stats());
+        }
 
-        ObjectNode finalCollection = objectMapper.createObjectNode();
-        finalCollection.putObject("info")
-            .put("_postman_id", UUID.randomUUID().toString())
-            .put("name", "Filtered Merged API Collection")
-            .put("schema", "https://schema.getpostman.com/json/collection/v2.1.0/collection.json");
-        finalCollection.set("item", mergedFolders);
+        boolean saved = saveCollection(writer, outputFile);
+        try {
+            // Only requests that made it into a saved collection count as merged for later runs
+            if (saved) {
+                history.commit();
+            }
+            history.close();
+        } catch (IOException e) {
+            LOG.error("❌ Error updating merge history: {}", e.getMessage());
+        }
+        RunMetrics.shared().report(outputFile.getPath());
+    }
 
-        saveCollection(finalOutputDir, "filtered_merged_collection.json", finalCollection, objectMapper);
+    // Runs on a worker thread; the events are replayed by the writer while the file is still being read
+    private static void recordCollection(File file, Consumer<RecordingVisitor.Event> events) {
+        try {
+            PostmanCollectionReader.read(file, new RecordingVisitor(events));
+        } catch (IOException e) {
+            LOG.error("❌ Error reading file: {}", file.getName(), e);
+        }
     }
 
-    private static void processItem(JsonNode item, Set<String> processedRequests, ArrayNode mergedFolders, String folderPath) {
-        if (item.has("item")) {
-            ObjectNode folder = (ObjectNode) item.deepCopy();
-            ArrayNode subItems = (ArrayNode) folder.get("item");
-            ArrayNode newSubItems = new ObjectMapper().createArrayNode();
+    // Mirrors the folder structure into the writer while items stream in; folders without added requests are dropped
+    private static class MergeVisitor implements PostmanCollectionReader.ItemVisitor {
+        private final FingerprintSet processedRequests;
+        private final MergeHistory history;
+        private final MergedCollectionWriter writer;
 
-            for (JsonNode subItem : subItems) {
-                processItem(subItem, processedRequests, newSubItems, folderPath + "/" + item.get("name").asText());
-            }
+        MergeVisitor(FingerprintSet processedRequests, MergeHistory history, MergedCollectionWriter writer) {
+            this.processedRequests = processedRequests;
+            this.history = history;
+            this.writer = writer;
+        }
+
+        @Override
+        public void startFolder(ObjectNode folder, String folderPath) {
+            writer.startFolder(folder);
+        }
 
-            if (!newSubItems.isEmpty()) {
-                folder.set("item", newSubItems);
-                mergedFolders.add(folder);
-                System.out.println("📂 Added folder: " + folderPath + "/" + item.get("name").asText());
+        @Override
+        public void endFolder(ObjectNode folder, String folderPath) throws IOException {
+            if (writer.endFolder()) {
+                LOG.debug("📂 Added folder: {}", folderPath);
             }
-        } else {
-            JsonNode request = item.get("request");
-            if (request != null) {
-                totalProcessed++; // Every request gets counted
-                String method = request.get("method").asText();
-                JsonNode urlNode = request.get("url");
-                if (urlNode != null) {
-                    String url = urlNode.get("raw").asText();
-                    String uniqueKey = method + "_" + url;
-
-                    System.out.println("🔍 Processing Request: " + method + " " + url);
-
-                    if (matchesFilter(url)) {
-                        totalMatchingFilter++;
-                        System.out.println("✅ Request matches filter: " + method + " " + url);
-
-                        if (!processedRequests.contains(uniqueKey)) {
-                            processedRequests.add(uniqueKey);
-                            mergedFolders.add(item);
-                            totalAdded++;
-                            System.out.println("✅ Added: " + method + " " + url);
+        }
+
+        @Override
+        public void visitRequest(PostmanItem item) throws IOException {
+            processRequest(item, processedRequests, history, writer);
+        }
+    }
+
+    private static void processRequest(PostmanItem item, FingerprintSet processedRequests, MergeHistory history,
+                                       MergedCollectionWriter writer) throws IOException {
+        RequestLine request = item.getRequestLine();
+        if (request != null) {
+            totalProcessed.increment(); // Every request gets counted
+            String method = request.getMethod();
+            String url = request.getUrl();
+            if (url != null) {
+                ContentFingerprint uniqueKey = FINGERPRINTER.fingerprint(method, url, request.getBody());
+
+                LOG.debug("🔍 Processing Request: {} {}", method, url);
+
+                if (matchesFilter(url)) {
+                    totalMatchingFilter.increment();
+                    LOG.debug("✅ Request matches filter: {} {}", method, url);
+
+                    if (!processedRequests.contains(uniqueKey)) {
+                        processedRequests.add(uniqueKey);
+                        if (!history.add(uniqueKey)) {
+                            totalSkippedHistory.increment();
+                            LOG.debug("⏭️ Skipped (Merged in an Earlier Run): {} {}", method, url);
                         } else {
-                            totalSkippedDuplicates++;
-                            System.out.println("🚫 Skipped Duplicate: " + method + " " + url);
+                            writer.writeItem(item);
+                            totalAdded.increment();
+                            LOG.debug("✅ Added: {} {}", method, url);
                         }
                     } else {
-                        System.out.println("⛔ Skipped (Not Matching Filter): " + method + " " + url);
+                        totalSkippedDuplicates.increment();
+                        LOG.debug("🚫 Skipped Duplicate: {} {}", method, url);
                     }
                 } else {
-                    System.out.println("⛔ Skipped (No URL): " + method);
+                    LOG.debug("⛔ Skipped (Not Matching Filter): {} {}", method, url);
                 }
+            } else {
+                LOG.debug("⛔ Skipped (No URL): {}", method);
             }
         }
     }
@@ -127,14 +189,14 @@ public class PostmanCollectionFilteredMerger {
         return FILTER_DOMAINS.stream().anyMatch(url::contains);
     }
 
-    private static void saveCollection(File outputDir, String fileName, ObjectNode collection, ObjectMapper objectMapper) {
+    private static boolean saveCollection(MergedCollectionWriter writer, File outputFile) {
         try {
-            File outputFile = new File(outputDir, fileName);
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, collection);
-            System.out.println("💾 Saved collection to: " + outputFile.getAbsolutePath());
+            writer.close();
+            LOG.info("💾 Saved collection to: {}", outputFile.getAbsolutePath());
+            return true;
         } catch (IOException e) {
-            System.err.println("❌ Error saving file: " + fileName);
-            e.printStackTrace();
+            LOG.error("❌ Error saving file: {}", outputFile.getName(), e);
+            return false;
         }
     }
 }
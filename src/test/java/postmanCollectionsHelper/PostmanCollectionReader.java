@@ -0,0 +1,344 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Streams a Postman collection with a {@link JsonParser} instead of loading the whole file with readTree.
+ * Only one request item (request + saved responses) is held at a time, so heap usage depends on
+ * the largest single item rather than on the size of the collection. Items are buffered as raw tokens; the
+ * tree is only built when a caller asks for it, so items can be copied to an output untouched.
+ */
+public class PostmanCollectionReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LatencyHistogram READ_TIMER = RunMetrics.shared().timer("collection.read");
+
+    /**
+     * Receives the items of a collection in document order.
+     */
+    public interface ItemVisitor {
+        void visitRequest(PostmanItem item) throws IOException;
+
+        default void startFolder(String name, String folderPath) throws IOException {
+        }
+
+        /**
+         * Called before the children of a folder. The folder node holds the fields that precede its children,
+         * followed by the "item" placeholder; the remaining fields are added before {@link #endFolder}.
+         */
+        default void startFolder(ObjectNode folder, String folderPath) throws IOException {
+            startFolder(folder.path("name").asText(), folderPath);
+        }
+
+        /**
+         * Called after all children of a folder were visited. The folder node holds every field except the
+         * children, "item" is kept as a null placeholder so the original field order can be restored.
+         */
+        default void endFolder(ObjectNode folder, String folderPath) throws IOException {
+        }
+    }
+
+    /**
+     * A single leaf item of a collection together with the folder it was found in.
+     */
+    public static class PostmanItem {
+        private final String folderPath;
+        private final String parentFolder;
+        private final String name;
+        private final TokenBuffer tokens;
+        private ObjectNode node;
+        private RequestLine requestLine;
+
+        public PostmanItem(String folderPath, String parentFolder, ObjectNode node) {
+            this.folderPath = folderPath;
+            this.parentFolder = parentFolder;
+            this.name = node.path("name").asText();
+            this.tokens = null;
+            this.node = node;
+        }
+
+        PostmanItem(String folderPath, String parentFolder, String name, TokenBuffer tokens) {
+            this.folderPath = folderPath;
+            this.parentFolder = parentFolder;
+            this.name = name;
+            this.tokens = tokens;
+        }
+
+        // Folder path with trailing slash, e.g. "Catalog/Products/" ("" for root items)
+        public String getFolderPath() {
+            return folderPath;
+        }
+
+        public String getParentFolder() {
+            return parentFolder;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFullPath() {
+            return folderPath + getName();
+        }
+
+        public JsonNode getRequest() {
+            return getNode().path("request");
+        }
+
+        public JsonNode getResponses() {
+            return getNode().path("response");
+        }
+
+        // Built from the buffered tokens on first use
+        public ObjectNode getNode() {
+            if (node == null) {
+                try (JsonParser parser = tokens.asParser()) {
+                    node = (ObjectNode) MAPPER.readTree(parser);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return node;
+        }
+
+        /**
+         * Method, URL and body of the request, scanned from the tokens without building the tree.
+         * Null if the item has no request.
+         */
+        public RequestLine getRequestLine() throws IOException {
+            if (requestLine == null) {
+                if (tokens == null) {
+                    requestLine = RequestLine.of(node.get("request"));
+                } else {
+                    try (JsonParser parser = tokens.asParser()) {
+                        requestLine = RequestLine.scan(parser);
+                    }
+                }
+            }
+            return requestLine == RequestLine.NONE ? null : requestLine;
+        }
+
+        /**
+         * Writes the item as it was read, token by token.
+         */
+        public void writeTo(JsonGenerator generator) throws IOException {
+            if (tokens != null) {
+                tokens.serialize(generator);
+            } else {
+                MAPPER.writeTree(generator, node);
+            }
+        }
+    }
+
+    /**
+     * The fields of a request that identify it: method, raw URL (null if the request has no URL) and raw body
+     * ("" if there is none).
+     */
+    public static class RequestLine {
+        private static final RequestLine NONE = new RequestLine("", null, "");
+
+        private final String method;
+        private final String url;
+        private final String body;
+
+        RequestLine(String method, String url, String body) {
+            this.method = method;
+            this.url = url;
+            this.body = body;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        private static RequestLine of(JsonNode request) {
+            if (request == null) {
+                return NONE;
+            }
+            JsonNode url = request.get("url");
+            return new RequestLine(request.path("method").asText(),
+                    url == null ? null : url.isObject() ? url.path("raw").asText() : url.asText(),
+                    request.path("body").path("raw").asText());
+        }
+
+        // Parser is positioned before the item object
+        private static RequestLine scan(JsonParser parser) throws IOException {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("request".equals(field) && value == JsonToken.START_OBJECT) {
+                    return scanRequest(parser);
+                }
+                parser.skipChildren();
+            }
+            return NONE;
+        }
+
+        private static RequestLine scanRequest(JsonParser parser) throws IOException {
+            String method = "";
+            String url = null;
+            String body = "";
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("method".equals(field)) {
+                    method = parser.getValueAsString("");
+                } else if ("url".equals(field)) {
+                    url = value == JsonToken.START_OBJECT ? scanRaw(parser) : parser.getValueAsString("");
+                } else if ("body".equals(field) && value == JsonToken.START_OBJECT) {
+                    body = scanRaw(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new RequestLine(method, url, body);
+        }
+
+        // Value of "raw" in the current object, which is consumed
+        private static String scanRaw(JsonParser parser) throws IOException {
+            String raw = "";
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("raw".equals(field)) {
+                    raw = parser.getValueAsString("");
+                }
+                parser.skipChildren();
+            }
+            return raw;
+        }
+    }
+
+    /**
+     * Turns the callbacks of a read into events that another thread replays on its own visitor, e.g. to parse on
+     * a worker thread. A folder node keeps growing until its end, so the start event carries a copy that the end
+     * event completes on the replaying thread.
+     */
+    public static class RecordingVisitor implements ItemVisitor {
+        public interface Event {
+            void replayTo(ItemVisitor visitor) throws IOException;
+        }
+
+        private final Consumer<Event> events;
+        private final Deque<ObjectNode> openFolders = new ArrayDeque<>();
+
+        public RecordingVisitor(Consumer<Event> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void visitRequest(PostmanItem item) {
+            events.accept(visitor -> visitor.visitRequest(item));
+        }
+
+        @Override
+        public void startFolder(ObjectNode folder, String folderPath) {
+            ObjectNode copy = folder.deepCopy();
+            openFolders.push(copy);
+            events.accept(visitor -> visitor.startFolder(copy, folderPath));
+        }
+
+        @Override
+        public void endFolder(ObjectNode folder, String folderPath) {
+            ObjectNode copy = openFolders.pop();
+            events.accept(visitor -> {
+                copy.setAll(folder);
+                visitor.endFolder(copy, folderPath);
+            });
+        }
+    }
+
+    public static void read(File file, ItemVisitor visitor) throws IOException {
+        long start = System.nanoTime();
+        try (JsonParser parser = MAPPER.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("item".equals(field) && value == JsonToken.START_ARRAY) {
+                    readItems(parser, "", "", visitor);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } finally {
+            READ_TIMER.recordSince(start);
+        }
+    }
+
+    private static void readItems(JsonParser parser, String parentPath, String parentFolder, ItemVisitor visitor) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                readItem(parser, parentPath, parentFolder, visitor);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    // Postman writes "name" before "item", so the folder name is known before its children are streamed
+    private static void readItem(JsonParser parser, String parentPath, String parentFolder, ItemVisitor visitor) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(MAPPER, false);
+        tokens.writeStartObject();
+        String name = "";
+        ObjectNode folder = null;
+        String folderPath = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (folder == null && "item".equals(field) && value == JsonToken.START_ARRAY) {
+                // A folder: the fields read so far become its node, the children are streamed
+                tokens.writeEndObject();
+                try (JsonParser buffered = tokens.asParser()) {
+                    folder = (ObjectNode) MAPPER.readTree(buffered);
+                }
+                folder.putNull("item");
+                folderPath = parentPath + name + "/";
+                visitor.startFolder(folder, folderPath);
+                readItems(parser, folderPath, name, visitor);
+            } else if (folder != null) {
+                JsonNode fieldValue = MAPPER.readTree(parser);
+                folder.set(field, fieldValue == null ? NullNode.getInstance() : fieldValue);
+            } else {
+                if ("name".equals(field)) {
+                    name = parser.getValueAsString("");
+                }
+                tokens.writeFieldName(field);
+                tokens.copyCurrentStructure(parser);
+            }
+        }
+
+        if (folder != null) {
+            visitor.endFolder(folder, folderPath);
+        } else {
+            tokens.writeEndObject();
+            visitor.visitRequest(new PostmanItem(parentPath, parentFolder, name, tokens));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package postmanCollectionsHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns the fields of a request that decide uniqueness into a 128-bit {@link ContentFingerprint}, so duplicate
+ * detection keeps 16 bytes per request in a {@link FingerprintSet} instead of a "method_url" String.
+ *
+ * Which fields count is configurable with -Dfingerprint.fields (default "method,url", the exact raw URL as before):
+ * <ul>
+ * <li>method - the HTTP method</li>
+ * <li>url - the URL exactly as written</li>
+ * <li>normalized_url - the URL with {{ placeholder }} spacing removed, query parameters sorted, the fragment and a
+ * trailing slash dropped, and path variables (:id, numbers, UUIDs) replaced by ":"</li>
+ * <li>body - the raw request body</li>
+ * </ul>
+ */
+public final class RequestFingerprinter {
+
+    public enum Field {
+        METHOD, URL, NORMALIZED_URL, BODY
+    }
+
+    private static final char SEPARATOR = '\u0000';
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final Set<Field> fields;
+
+    public RequestFingerprinter(Set<Field> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one fingerprint field is required");
+        }
+        this.fields = Collections.unmodifiableSet(EnumSet.copyOf(fields));
+    }
+
+    public static RequestFingerprinter fromSystemProperties() {
+        return parse(System.getProperty("fingerprint.fields", "method,url"));
+    }
+
+    public static RequestFingerprinter parse(String spec) {
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (String name : spec.split(",")) {
+            if (!name.trim().isEmpty()) {
+                fields.add(Field.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return new RequestFingerprinter(fields);
+    }
+
+    public Set<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * Fingerprint of the configured fields; fields that are not configured are ignored and may be null.
+     */
+    public ContentFingerprint fingerprint(String method, String url, String body) {
+        StringBuilder key = BUFFER.get();
+        key.setLength(0);
+        if (fields.contains(Field.METHOD)) {
+            key.append(method == null ? "" : method).append(SEPARATOR);
+        }
+        if (fields.contains(Field.URL)) {
+            key.append(url == null ? "" : url).append(SEPARATOR);
+        }
+        if (fields.contains(Field.NORMALIZED_URL)) {
+            appendNormalizedUrl(key, url == null ? "" : url);
+            key.append(SEPARATOR);
+        }
+        if (fields.contains(Field.BODY)) {
+            key.append(body == null ? "" : body).append(SEPARATOR);
+        }
+        ContentFingerprint fingerprint = ContentFingerprint.of(key);
+        if (key.capacity() > 1 << 20) {
+            BUFFER.remove();
+        }
+        return fingerprint;
+    }
+
+    private static void appendNormalizedUrl(StringBuilder out, String url) {
+        int fragment = url.indexOf('#');
+        String withoutFragment = fragment >= 0 ? url.substring(0, fragment) : url;
+        int queryStart = withoutFragment.indexOf('?');
+        String path = queryStart >= 0 ? withoutFragment.substring(0, queryStart) : withoutFragment;
+        String query = queryStart >= 0 ? withoutFragment.substring(queryStart + 1) : "";
+
+        String[] segments = stripPlaceholderSpaces(path).split("/", -1);
+        int last = segments.length - 1;
+        if (last > 0 && segments[last].isEmpty()) {
+            last--; // trailing slash
+        }
+        for (int i = 0; i <= last; i++) {
+            if (i > 0) out.append('/');
+            out.append(isPathVariable(segments[i]) ? ":" : segments[i]);
+        }
+
+        if (!query.isEmpty()) {
+            List<String> parameters = new ArrayList<>(Arrays.asList(stripPlaceholderSpaces(query).split("&")));
+            parameters.removeIf(String::isEmpty);
+            Collections.sort(parameters);
+            out.append('?').append(String.join("&", parameters));
+        }
+    }
+
+    // {{ base_url }} -> {{base_url}}
+    private static String stripPlaceholderSpaces(String text) {
+        if (text.indexOf("{{") < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        int start = 0;
+        int open;
+        while ((open = text.indexOf("{{", start)) >= 0) {
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) break;
+            out.append(text, start, open).append("{{").append(text.substring(open + 2, close).trim()).append("}}");
+            start = close + 2;
+        }
+        return out.append(text, start, text.length()).toString();
+    }
+
+    // Postman :variables, numeric ids and UUIDs
+    private static boolean isPathVariable(String segment) {
+        if (segment.length() > 1 && segment.charAt(0) == ':') {
+            return true;
+        }
+        if (segment.isEmpty()) {
+            return false;
+        }
+        boolean digits = true;
+        for (int i = 0; i < segment.length() && digits; i++) {
+            digits = Character.isDigit(segment.charAt(i));
+        }
+        return digits || (segment.length() == 36 && segment.matches("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}"));
+    }
+}
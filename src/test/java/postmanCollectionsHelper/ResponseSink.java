@@ -0,0 +1,155 @@
+package postmanCollectionsHelper;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams response bodies from the socket to a per-row file through NIO channels, optionally gzip-compressed,
+ * instead of materializing them as Strings. Only a bounded preview and a SHA-256 of the body stay in memory.
+ */
+public class ResponseSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * What is kept of a response once its body is on disk.
+     */
+    public static class StoredResponse {
+        private final int statusCode;
+        private final Path file;
+        private final long bytes;
+        private final String preview;
+        private final String sha256;
+
+        public StoredResponse(int statusCode, Path file, long bytes, String preview, String sha256) {
+            this.statusCode = statusCode;
+            this.file = file;
+            this.bytes = bytes;
+            this.preview = preview;
+            this.sha256 = sha256;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        // null when the body was not written to disk
+        public Path getFile() {
+            return file;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public String getPreview() {
+            return preview;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+    }
+
+    /**
+     * Writes the body to {@code file} (gzip-compressed when {@code gzip} is set).
+     */
+    public static ResponseHandler<StoredResponse> toFile(Path file, boolean gzip, int previewChars) {
+        return response -> {
+            HttpEntity entity = response.getEntity();
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (entity == null) {
+                return copy(new ByteArrayInputStream(new byte[0]), StandardCharsets.UTF_8, statusCode, file, gzip, previewChars);
+            }
+            try (InputStream content = entity.getContent()) {
+                return copy(content, charsetOf(entity), statusCode, file, gzip, previewChars);
+            }
+        };
+    }
+
+    // Stores a locally produced text (e.g. an error message) the same way as a response body
+    public static StoredResponse store(String text, Path file, boolean gzip, int previewChars) throws IOException {
+        return copy(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, 0, file, gzip, previewChars);
+    }
+
+    private static Charset charsetOf(HttpEntity entity) {
+        ContentType contentType = ContentType.get(entity);
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    private static StoredResponse copy(InputStream content, Charset charset, int statusCode, Path file, boolean gzip, int previewChars) throws IOException {
+        MessageDigest digest = sha256();
+        // A UTF-8 character takes at most 4 bytes, so this is enough to decode previewChars characters
+        int previewLimit = (int) Math.min(Integer.MAX_VALUE, previewChars * 4L);
+        ByteBuffer previewBytes = ByteBuffer.allocate(Math.min(previewLimit, BUFFER_SIZE * 4));
+        long total = 0;
+
+        try (ReadableByteChannel source = Channels.newChannel(content);
+             WritableByteChannel target = open(file, gzip)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                total += buffer.remaining();
+                digest.update(buffer.duplicate());
+                if (previewBytes.hasRemaining()) {
+                    ByteBuffer slice = buffer.duplicate();
+                    slice.limit(slice.position() + Math.min(slice.remaining(), previewBytes.remaining()));
+                    previewBytes.put(slice);
+                }
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+
+        previewBytes.flip();
+        String preview = charset.decode(previewBytes).toString();
+        if (preview.length() > previewChars) {
+            int end = Character.isHighSurrogate(preview.charAt(previewChars - 1)) ? previewChars - 1 : previewChars;
+            preview = preview.substring(0, end);
+        }
+        return new StoredResponse(statusCode, file, total, preview, toHex(digest.digest()));
+    }
+
+    private static WritableByteChannel open(Path file, boolean gzip) throws IOException {
+        if (gzip) {
+            return Channels.newChannel(new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        }
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,176 @@
+package postmanCollectionsHelper;
+
+import postmanCollectionsHelper.ResponseSink.StoredResponse;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of finished rows, one tab separated line per row:
+ * <pre>
+ * row  status  latency_ms  bytes  sha256  response_file
+ * </pre>
+ * Every line is flushed as soon as its row is done, so a crashed run loses at most the rows that were in flight.
+ * Opening the log with resume reloads the finished rows so the caller can skip them; a torn last line is ignored.
+ * Rows logged with status 0 (no HTTP response, e.g. a connection error) are kept for the workbook but do not count
+ * as finished, so a resumed run sends them again.
+ */
+public class ResultsLog implements Closeable {
+    private static final String HEADER = "# row\tstatus\tlatency_ms\tbytes\tsha256\tresponse_file";
+
+    private final Map<Integer, Entry> entries = new TreeMap<>();
+    private final BufferedWriter writer;
+
+    public static class Entry {
+        private final int row;
+        private final int statusCode;
+        private final long latencyMs;
+        private final long bytes;
+        private final String sha256;
+        private final String responseFile;
+
+        public Entry(int row, int statusCode, long latencyMs, long bytes, String sha256, String responseFile) {
+            this.row = row;
+            this.statusCode = statusCode;
+            this.latencyMs = latencyMs;
+            this.bytes = bytes;
+            this.sha256 = sha256;
+            this.responseFile = responseFile;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public String getResponseFile() {
+            return responseFile;
+        }
+
+        private String toLine() {
+            return row + "\t" + statusCode + "\t" + latencyMs + "\t" + bytes + "\t" + sha256 + "\t" + responseFile;
+        }
+
+        // null for lines that are not complete entries
+        private static Entry parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (line.startsWith("#") || fields.length != 6) {
+                return null;
+            }
+            try {
+                return new Entry(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                        Long.parseLong(fields[3]), fields[4], fields[5]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private ResultsLog(Path file, boolean resume) throws IOException {
+        boolean existing = resume && Files.exists(file);
+        boolean tornLine = existing && !endsWithNewline(file);
+        if (existing) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                // A line only counts once its terminator is there; a torn one can still look complete
+                String line = reader.readLine();
+                while (line != null) {
+                    String next = reader.readLine();
+                    Entry entry = next != null || !tornLine ? Entry.parse(line) : null;
+                    if (entry != null) {
+                        entries.put(entry.getRow(), entry);
+                    }
+                    line = next;
+                }
+            }
+        }
+
+        writer = existing
+                ? Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        if (tornLine) {
+            // Terminate the half written line of the interrupted run
+            writer.newLine();
+        } else if (!existing) {
+            writer.write(HEADER);
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Opens the log; with {@code resume} the rows of an earlier run are kept, otherwise the log is started over.
+     */
+    public static ResultsLog open(Path file, boolean resume) throws IOException {
+        return new ResultsLog(file, resume);
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() == 0) {
+                return true;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    public synchronized boolean isFinished(int row) {
+        Entry entry = entries.get(row);
+        return entry != null && entry.getStatusCode() != 0;
+    }
+
+    // Number of finished rows
+    public synchronized int size() {
+        int finished = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.getStatusCode() != 0) {
+                finished++;
+            }
+        }
+        return finished;
+    }
+
+    public synchronized void append(int row, long latencyMs, StoredResponse response) throws IOException {
+        String responseFile = response.getFile() != null ? response.getFile().toString() : "";
+        Entry entry = new Entry(row, response.getStatusCode(), latencyMs, response.getBytes(), response.getSha256(), responseFile);
+        writer.write(entry.toLine());
+        writer.newLine();
+        writer.flush();
+        entries.put(row, entry);
+    }
+
+    // Logged rows in row order, failed ones included
+    public synchronized Map<Integer, Entry> getEntries() {
+        return Collections.unmodifiableMap(new TreeMap<>(entries));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
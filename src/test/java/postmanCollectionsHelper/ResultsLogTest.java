@@ -0,0 +1,57 @@
+package postmanCollectionsHelper;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import postmanCollectionsHelper.ResponseSink.StoredResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ResultsLogTest {
+
+    @Test
+    public void resumesWithoutTornLastLine() throws IOException {
+        Path file = Files.createTempFile("results", ".log");
+        try {
+            // The interrupted run was cut off inside the response file of row 2
+            Files.write(file, ("# row\tstatus\tlatency_ms\tbytes\tsha256\tresponse_file\n"
+                    + "1\t200\t15\t42\tabc\t/tmp/responses/row_1.json\n"
+                    + "2\t200\t17\t42\tdef\t/tmp/respo").getBytes(StandardCharsets.UTF_8));
+
+            try (ResultsLog log = ResultsLog.open(file, true)) {
+                Assert.assertTrue(log.isFinished(1));
+                Assert.assertFalse(log.isFinished(2));
+                Assert.assertEquals(log.size(), 1);
+                log.append(2, 20, new StoredResponse(201, Paths.get("/tmp/responses/row_2.json"), 7, "", "fed"));
+            }
+
+            try (ResultsLog log = ResultsLog.open(file, true)) {
+                Assert.assertEquals(log.size(), 2);
+                Assert.assertEquals(log.getEntries().get(2).getStatusCode(), 201);
+                Assert.assertEquals(log.getEntries().get(2).getResponseFile(), "/tmp/responses/row_2.json");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void failedRowsAreSentAgain() throws IOException {
+        Path file = Files.createTempFile("results", ".log");
+        try {
+            try (ResultsLog log = ResultsLog.open(file, false)) {
+                log.append(1, 5, new StoredResponse(0, null, 0, "", ""));
+            }
+            try (ResultsLog log = ResultsLog.open(file, true)) {
+                Assert.assertFalse(log.isFinished(1));
+                Assert.assertEquals(log.size(), 0);
+                Assert.assertEquals(log.getEntries().get(1).getResponseFile(), "");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package postmanCollectionsHelper;
+
+import org.apache.poi.ss.usermodel.Row;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cell values of one output row, built off the POI sheet so rows can be prepared on worker threads and
+ * written later by a single writer.
+ */
+public class RowData {
+    private final Map<Integer, Object> cells = new LinkedHashMap<>();
+
+    public RowData set(int column, String value) {
+        cells.put(column, value);
+        return this;
+    }
+
+    public RowData set(int column, double value) {
+        cells.put(column, value);
+        return this;
+    }
+
+    public void writeTo(Row row) {
+        for (Map.Entry<Integer, Object> cell : cells.entrySet()) {
+            Object value = cell.getValue();
+            if (value instanceof Double) {
+                row.createCell(cell.getKey()).setCellValue((Double) value);
+            } else {
+                row.createCell(cell.getKey()).setCellValue((String) value);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency timers of one tool run, shared by all threads. Hot paths look up their metric once and keep
+ * it in a static field; recording is lock-free. At the end of a run the tools write the summary next to their
+ * output as &lt;output&gt;.metrics.json and &lt;output&gt;.metrics.csv.
+ *
+ * Metric names in use: collection.read (per file), curl.generate, http.&lt;host&gt;, json.diff, workbook.write and
+ * the requests.* counters of the mergers.
+ */
+public final class RunMetrics {
+    private static final Logger LOG = LogManager.getLogger(RunMetrics.class);
+    private static final RunMetrics SHARED = new RunMetrics();
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> timers = new ConcurrentSkipListMap<>();
+
+    public static RunMetrics shared() {
+        return SHARED;
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Prints the timer summary and writes the summary files. Failing to write them does not fail the run.
+     */
+    public void report(String basePath) {
+        LOG.info(summary());
+        try {
+            LOG.info("Metrics written to {} and .csv", writeSummary(basePath).getPath());
+        } catch (IOException e) {
+            LOG.error("Error writing metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes &lt;basePath&gt;.metrics.json and &lt;basePath&gt;.metrics.csv and returns the JSON file.
+     */
+    public File writeSummary(String basePath) throws IOException {
+        File json = new File(basePath + ".metrics.json");
+        long elapsed = System.nanoTime() - startNanos;
+        try (JsonGenerator out = JsonParseCache.MAPPER.getFactory().createGenerator(json, JsonEncoding.UTF8)) {
+            out.setPrettyPrinter(new DefaultPrettyPrinter());
+            out.writeStartObject();
+            out.writeNumberField("elapsedMs", millis(elapsed));
+            out.writeObjectFieldStart("counters");
+            for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+                out.writeNumberField(counter.getKey(), counter.getValue().sum());
+            }
+            out.writeEndObject();
+            out.writeObjectFieldStart("timers");
+            for (Map.Entry<String, LatencyHistogram> timer : timers.entrySet()) {
+                LatencyHistogram histogram = timer.getValue();
+                out.writeObjectFieldStart(timer.getKey());
+                out.writeNumberField("count", histogram.getCount());
+                out.writeNumberField("totalMs", millis(histogram.getTotalNanos()));
+                out.writeNumberField("meanMs", millis(histogram.getMeanNanos()));
+                out.writeNumberField("minMs", millis(histogram.getMinNanos()));
+                for (double percentile : PERCENTILES) {
+                    out.writeNumberField(percentileName(percentile) + "Ms", millis(histogram.getValueAtPercentile(percentile)));
+                }
+                out.writeNumberField("maxMs", millis(histogram.getMaxNanos()));
+                out.writeEndObject();
+            }
+            out.writeEndObject();
+            out.writeEndObject();
+        }
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(basePath + ".metrics.csv"), StandardCharsets.UTF_8))) {
+            out.println("type,name,count,total_ms,mean_ms,min_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            out.println("run,elapsed,," + millis(elapsed) + ",,,,,,,");
+            for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+                out.println("counter," + counter.getKey() + "," + counter.getValue().sum() + ",,,,,,,,");
+            }
+            for (Map.Entry<String, LatencyHistogram> timer : timers.entrySet()) {
+                LatencyHistogram histogram = timer.getValue();
+                StringBuilder line = new StringBuilder("timer,").append(timer.getKey()).append(',')
+                        .append(histogram.getCount()).append(',')
+                        .append(millis(histogram.getTotalNanos())).append(',')
+                        .append(millis(histogram.getMeanNanos())).append(',')
+                        .append(millis(histogram.getMinNanos()));
+                for (double percentile : PERCENTILES) {
+                    line.append(',').append(millis(histogram.getValueAtPercentile(percentile)));
+                }
+                out.println(line.append(',').append(millis(histogram.getMaxNanos())));
+            }
+        }
+        return json;
+    }
+
+    /**
+     * One line per timer with count, mean, p99 and max, for the console.
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Run metrics (" + millis(System.nanoTime() - startNanos) + " ms):");
+        for (Map.Entry<String, LatencyHistogram> timer : timers.entrySet()) {
+            LatencyHistogram histogram = timer.getValue();
+            summary.append(String.format(Locale.ROOT, "%n  %-28s %8d x  mean %9.3f ms  p99 %9.3f ms  max %9.3f ms",
+                    timer.getKey(), histogram.getCount(), millis(histogram.getMeanNanos()),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxNanos())));
+        }
+        return summary.toString();
+    }
+
+    private static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + String.valueOf(percentile).replace(".", "");
+    }
+
+    private static double millis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,22 @@
+package postmanCollectionsHelper;
+
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Streaming workbooks for the exporters, which write their sheets once, top to bottom.
+ */
+public class StreamingWorkbooks {
+    static final int ROW_ACCESS_WINDOW = 100;
+
+    private StreamingWorkbooks() {
+    }
+
+    /**
+     * Keeps ROW_ACCESS_WINDOW rows in memory, flushes the rest to gzip-compressed temp files and writes strings
+     * inline instead of through a shared strings table. Call {@link SXSSFWorkbook#dispose()} after writing to
+     * remove the temp files.
+     */
+    public static SXSSFWorkbook create() {
+        return new SXSSFWorkbook(null, ROW_ACCESS_WINDOW, true, false);
+    }
+}
@@ -0,0 +1,528 @@
+package postmanCollectionsHelper;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Event-based (SAX) reader for large .xlsx inputs. Sheets are parsed straight from the zip with
+ * {@link XSSFReader} and handed to a {@link RowVisitor} one row at a time, so only the current row and the
+ * shared strings table are kept in memory instead of the whole XSSFWorkbook DOM.
+ *
+ * Sheet names are read from workbook.xml alone; listing them does not parse any sheet or the shared strings.
+ * Cells keep their type, cached value and formula text, so callers can treat them like POI cells. Cells of a
+ * shared formula get the formula of the range's first cell with its relative references moved, as in POI.
+ */
+public class StreamingXlsxReader implements Closeable {
+    private static final int MAX_ROWS = 1 << 20;
+    private static final int MAX_COLUMNS = 1 << 14;
+    private static final Pattern CELL_REFERENCE = Pattern.compile("(\\$?)([A-Z]{1,3})(\\$?)([0-9]+)");
+    private static final Pattern COLUMN_REFERENCE = Pattern.compile("(\\$?)([A-Z]{1,3})");
+    private static final Pattern ROW_REFERENCE = Pattern.compile("(\\$?)([0-9]+)");
+
+    private final OPCPackage pkg;
+    private final XSSFReader reader;
+    private final List<SheetRef> sheets;
+    private ReadOnlySharedStringsTable sharedStrings;
+
+    public interface RowVisitor {
+        void visitRow(XlsxRow row) throws IOException;
+    }
+
+    /**
+     * A physical row of a sheet; rows and cells that are not in the file are not reported, like in POI.
+     */
+    public static class XlsxRow {
+        private final int rowNum;
+        private final List<XlsxCell> cells = new ArrayList<>();
+
+        XlsxRow(int rowNum) {
+            this.rowNum = rowNum;
+        }
+
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        // null when the cell is not in the file
+        public XlsxCell getCell(int column) {
+            return column < cells.size() ? cells.get(column) : null;
+        }
+
+        public int getLastCellNum() {
+            return cells.size();
+        }
+
+        void setCell(int column, XlsxCell cell) {
+            while (cells.size() <= column) {
+                cells.add(null);
+            }
+            cells.set(column, cell);
+        }
+    }
+
+    public static class XlsxCell {
+        private final CellType cellType;
+        private final String text;
+        private final String formula;
+
+        XlsxCell(CellType cellType, String text, String formula) {
+            this.cellType = cellType;
+            this.text = text;
+            this.formula = formula;
+        }
+
+        public CellType getCellType() {
+            return cellType;
+        }
+
+        // Text of the cell; for formula cells the cached result
+        public String getStringCellValue() {
+            return text;
+        }
+
+        public double getNumericCellValue() {
+            return text.isEmpty() ? 0 : Double.parseDouble(text);
+        }
+
+        public boolean getBooleanCellValue() {
+            return "1".equals(text) || "true".equalsIgnoreCase(text);
+        }
+
+        public String getCellFormula() {
+            return formula != null ? formula : "";
+        }
+    }
+
+    private static class SheetRef {
+        private final String name;
+        private final String relationId;
+
+        SheetRef(String name, String relationId) {
+            this.name = name;
+            this.relationId = relationId;
+        }
+    }
+
+    public StreamingXlsxReader(File file) throws IOException {
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Cannot open " + file + ": " + e.getMessage(), e);
+        }
+        try {
+            reader = new XSSFReader(pkg);
+            sheets = readWorkbook(reader);
+        } catch (OpenXML4JException | SAXException | IOException | RuntimeException e) {
+            pkg.revert();
+            throw e instanceof IOException ? (IOException) e : new IOException("Cannot read " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static List<String> sheetNames(File file) throws IOException {
+        try (StreamingXlsxReader reader = new StreamingXlsxReader(file)) {
+            return reader.getSheetNames();
+        }
+    }
+
+    public List<String> getSheetNames() {
+        List<String> names = new ArrayList<>();
+        for (SheetRef sheet : sheets) {
+            names.add(sheet.name);
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    // Sheet names are matched case-insensitively, as XSSFWorkbook.getSheet does
+    public boolean hasSheet(String name) {
+        return findSheet(name) != null;
+    }
+
+    /**
+     * Streams the rows of the named sheet to the visitor; returns false when there is no such sheet.
+     */
+    public boolean readSheet(String name, RowVisitor visitor) throws IOException {
+        SheetRef sheet = findSheet(name);
+        if (sheet == null) {
+            return false;
+        }
+        readSheet(sheet, visitor);
+        return true;
+    }
+
+    public void readSheet(int index, RowVisitor visitor) throws IOException {
+        readSheet(sheetAt(index), visitor);
+    }
+
+    // Zip entry holding the sheet XML, e.g. "xl/worksheets/sheet1.xml"
+    public String getSheetEntryName(int index) throws IOException {
+        SheetRef sheet = sheetAt(index);
+        try {
+            PackageRelationshipCollection documents = pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+            if (documents.isEmpty()) {
+                documents = pkg.getRelationshipsByType(PackageRelationshipTypes.STRICT_CORE_DOCUMENT);
+            }
+            PackagePart workbookPart = pkg.getPart(documents.getRelationship(0));
+            PackageRelationship sheetRelation = workbookPart.getRelationship(sheet.relationId);
+            return PackagingURIHelper.createPartName(sheetRelation.getTargetURI()).getName().substring(1);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Cannot locate sheet " + sheet.name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private SheetRef sheetAt(int index) {
+        if (index < 0 || index >= sheets.size()) {
+            throw new IllegalArgumentException("Sheet index (" + index + ") is out of range (0.." + (sheets.size() - 1) + ")");
+        }
+        return sheets.get(index);
+    }
+
+    private SheetRef findSheet(String name) {
+        for (SheetRef sheet : sheets) {
+            if (sheet.name.equalsIgnoreCase(name)) {
+                return sheet;
+            }
+        }
+        return null;
+    }
+
+    private void readSheet(SheetRef sheet, RowVisitor visitor) throws IOException {
+        try {
+            if (sharedStrings == null) {
+                sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            }
+            try (InputStream sheetData = reader.getSheet(sheet.relationId)) {
+                parse(sheetData, new SheetHandler(sharedStrings, visitor));
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Cannot read sheet " + sheet.name + ": " + e.getMessage(), e);
+        } catch (UncheckedIOException e) {
+            // IOException thrown by the visitor while inside the SAX callbacks
+            throw e.getCause();
+        }
+    }
+
+    private static List<SheetRef> readWorkbook(XSSFReader reader) throws IOException, OpenXML4JException, SAXException {
+        List<SheetRef> sheets = new ArrayList<>();
+        try (InputStream workbookData = reader.getWorkbookData()) {
+            parse(workbookData, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if (!"sheet".equals(localName)) return;
+                    // r:id, in the transitional or the strict relationships namespace
+                    String relationId = null;
+                    for (int i = 0; i < attributes.getLength(); i++) {
+                        if ("id".equals(attributes.getLocalName(i)) && !attributes.getURI(i).isEmpty()) {
+                            relationId = attributes.getValue(i);
+                        }
+                    }
+                    sheets.add(new SheetRef(attributes.getValue("name"), relationId));
+                }
+            });
+        }
+        return sheets;
+    }
+
+    private static void parse(InputStream data, DefaultHandler handler) throws IOException, SAXException {
+        XMLReader xmlReader;
+        try {
+            xmlReader = XMLHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new SAXException("SAX parser not available", e);
+        }
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(data));
+    }
+
+    // Column index of a cell reference such as "AB12" (0-based)
+    static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    // Column letters of a 0-based column index, the inverse of columnIndex
+    static String columnName(int column) {
+        StringBuilder name = new StringBuilder();
+        for (int n = column + 1; n > 0; n = (n - 1) / 26) {
+            name.append((char) ('A' + (n - 1) % 26));
+        }
+        return name.reverse().toString();
+    }
+
+    /**
+     * Moves the relative references of a formula by the given number of rows and columns, the way a shared
+     * formula is applied to the cells after its first one. Absolute ($) parts stay; a reference moved off the
+     * sheet becomes #REF!. Strings, quoted sheet names, structured references and function names are left alone.
+     */
+    static String shiftFormula(String formula, int rowDelta, int columnDelta) {
+        StringBuilder shifted = new StringBuilder(formula.length() + 8);
+        int length = formula.length();
+        int i = 0;
+        while (i < length) {
+            char c = formula.charAt(i);
+            int end = i + 1;
+            if (c == '"' || c == '\'') {
+                // A doubled quote stands for the quote itself
+                while (end < length && (formula.charAt(end) != c || (end + 1 < length && formula.charAt(end + 1) == c))) {
+                    end += formula.charAt(end) == c ? 2 : 1;
+                }
+                end = Math.min(end + 1, length);
+                shifted.append(formula, i, end);
+            } else if (c == '[') {
+                for (int depth = 1; end < length && depth > 0; end++) {
+                    depth += formula.charAt(end) == '[' ? 1 : formula.charAt(end) == ']' ? -1 : 0;
+                }
+                shifted.append(formula, i, end);
+            } else if (isNameChar(c)) {
+                while (end < length && isNameChar(formula.charAt(end))) {
+                    end++;
+                }
+                String word = formula.substring(i, end);
+                char before = i > 0 ? formula.charAt(i - 1) : ' ';
+                char after = end < length ? formula.charAt(end) : ' ';
+                if (after == '(' || after == '!') {
+                    shifted.append(word); // function or sheet name
+                } else {
+                    shifted.append(shiftReference(word, before == ':' || after == ':', rowDelta, columnDelta));
+                }
+            } else {
+                shifted.append(c);
+            }
+            i = end;
+        }
+        return shifted.toString();
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '$' || c == '_' || c == '.';
+    }
+
+    // A1 references anywhere, whole columns (A:C) and whole rows (1:3) only next to a range colon
+    private static String shiftReference(String word, boolean inRange, int rowDelta, int columnDelta) {
+        Matcher cell = CELL_REFERENCE.matcher(word);
+        if (cell.matches() && columnIndex(cell.group(2)) < MAX_COLUMNS) {
+            String column = shiftColumn(cell.group(1), cell.group(2), columnDelta);
+            String row = shiftRow(cell.group(3), cell.group(4), rowDelta);
+            return column == null || row == null ? "#REF!" : column + row;
+        }
+        Matcher columnOnly = COLUMN_REFERENCE.matcher(word);
+        if (inRange && columnOnly.matches() && columnIndex(columnOnly.group(2)) < MAX_COLUMNS) {
+            String column = shiftColumn(columnOnly.group(1), columnOnly.group(2), columnDelta);
+            return column == null ? "#REF!" : column;
+        }
+        Matcher rowOnly = ROW_REFERENCE.matcher(word);
+        if (inRange && rowOnly.matches()) {
+            String row = shiftRow(rowOnly.group(1), rowOnly.group(2), rowDelta);
+            return row == null ? "#REF!" : row;
+        }
+        return word;
+    }
+
+    // null when the column moves off the sheet
+    private static String shiftColumn(String absolute, String name, int delta) {
+        if (!absolute.isEmpty()) {
+            return absolute + name;
+        }
+        int column = columnIndex(name) + delta;
+        return column < 0 || column >= MAX_COLUMNS ? null : columnName(column);
+    }
+
+    // null when the row moves off the sheet
+    private static String shiftRow(String absolute, String number, int delta) {
+        if (!absolute.isEmpty()) {
+            return absolute + number;
+        }
+        long row = Long.parseLong(number) + delta;
+        return row < 1 || row > MAX_ROWS ? null : String.valueOf(row);
+    }
+
+    // The first cell of a shared formula range, which carries the formula text
+    private static class SharedFormula {
+        private final String formula;
+        private final int rowNum;
+        private final int column;
+
+        SharedFormula(String formula, int rowNum, int column) {
+            this.formula = formula;
+            this.rowNum = rowNum;
+            this.column = column;
+        }
+    }
+
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final RowVisitor visitor;
+        private final StringBuilder value = new StringBuilder();
+        // Shared formulas of the sheet by their "si" index
+        private final Map<String, SharedFormula> sharedFormulas = new HashMap<>();
+        private StringBuilder formula;
+        private String formulaType;
+        private String sharedIndex;
+
+        private XlsxRow row;
+        private int nextRowNum;
+        private int nextColumn;
+        private int column;
+        private String type;
+        private boolean inValue;
+        private boolean inInlineString;
+        private boolean inFormula;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, RowVisitor visitor) {
+            this.sharedStrings = sharedStrings;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String rowRef = attributes.getValue("r");
+                    row = new XlsxRow(rowRef != null ? Integer.parseInt(rowRef) - 1 : nextRowNum);
+                    nextColumn = 0;
+                    break;
+                case "c":
+                    String cellRef = attributes.getValue("r");
+                    column = cellRef != null ? columnIndex(cellRef) : nextColumn;
+                    type = attributes.getValue("t");
+                    value.setLength(0);
+                    formula = null;
+                    break;
+                case "v":
+                    inValue = true;
+                    break;
+                case "is":
+                    inInlineString = true;
+                    break;
+                case "t":
+                    // Text runs of an inline string; rich text runs are concatenated
+                    inValue = inInlineString;
+                    break;
+                case "f":
+                    inFormula = true;
+                    formula = new StringBuilder();
+                    formulaType = attributes.getValue("t");
+                    sharedIndex = attributes.getValue("si");
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            } else if (inFormula) {
+                formula.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    break;
+                case "f":
+                    inFormula = false;
+                    break;
+                case "c":
+                    row.setCell(column, toCell());
+                    nextColumn = column + 1;
+                    break;
+                case "row":
+                    try {
+                        visitor.visitRow(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    nextRowNum = row.getRowNum() + 1;
+                    row = null;
+                    break;
+                default:
+            }
+        }
+
+        private XlsxCell toCell() {
+            String text = value.toString();
+            if ("s".equals(type) && !text.isEmpty()) {
+                text = sharedStrings.getItemAt(Integer.parseInt(text)).getString();
+            }
+            if (formula != null) {
+                return new XlsxCell(CellType.FORMULA, text, resolveFormula(text));
+            }
+            if (type == null || "n".equals(type)) {
+                return new XlsxCell(text.isEmpty() ? CellType.BLANK : CellType.NUMERIC, text, null);
+            }
+            switch (type) {
+                case "b":
+                    return new XlsxCell(CellType.BOOLEAN, text, null);
+                case "e":
+                    return new XlsxCell(CellType.ERROR, text, null);
+                default:
+                    // "s", "inlineStr" and "str"
+                    return new XlsxCell(CellType.STRING, text, null);
+            }
+        }
+
+        // Only the first cell of a shared formula has its text; the others get it moved to their own position
+        private String resolveFormula(String cachedValue) {
+            String text = formula.toString();
+            if (!"shared".equals(formulaType) || sharedIndex == null) {
+                return text;
+            }
+            if (!text.isEmpty()) {
+                sharedFormulas.put(sharedIndex, new SharedFormula(text, row.getRowNum(), column));
+                return text;
+            }
+            SharedFormula master = sharedFormulas.get(sharedIndex);
+            if (master == null) {
+                return cachedValue; // Range without its first cell; the cached result is the best we have
+            }
+            return shiftFormula(master.formula, row.getRowNum() - master.rowNum, column - master.column);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Opened read-only, so nothing is written back
+        pkg.revert();
+    }
+}
@@ -0,0 +1,126 @@
+package postmanCollectionsHelper;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import postmanCollectionsHelper.StreamingXlsxReader.XlsxCell;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class StreamingXlsxReaderTest {
+
+    @Test
+    public void shiftsRelativeReferences() {
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("A1+$B1+C$1+$D$1", 2, 1), "B3+$B3+D$1+$D$1");
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("SUM(A1:B2)*LOG10(Z9)", 1, 0), "SUM(A2:B3)*LOG10(Z10)");
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("SUM(A:A)+SUM(1:$2)", 3, 2), "SUM(C:C)+SUM(4:$2)");
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("'My A1'!A1&\"A1\"&Sheet2!B2", 1, 1),
+                "'My A1'!B2&\"A1\"&Sheet2!C3");
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("Table1[[#This Row],[A1]]+A1", 1, 0),
+                "Table1[[#This Row],[A1]]+A2");
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("Z1+1.5E3", 0, 1), "AA1+1.5E3");
+        Assert.assertEquals(StreamingXlsxReader.shiftFormula("A2-B1", -1, -1), "#REF!-#REF!");
+    }
+
+    @Test
+    public void resolvesSharedFormulasLikePoi() throws IOException {
+        // Shared formula 0 fills C2:D3 from its first cell C2
+        File file = writeWorkbook("<row r=\"1\"><c r=\"A1\"><v>10</v></c></row>"
+                + "<row r=\"2\"><c r=\"B2\"><v>1</v></c>"
+                + "<c r=\"C2\"><f t=\"shared\" ref=\"C2:D3\" si=\"0\">B2*2+$A$1</f><v>12</v></c>"
+                + "<c r=\"D2\"><f t=\"shared\" si=\"0\"/><v>34</v></c></row>"
+                + "<row r=\"3\"><c r=\"B3\"><v>2</v></c>"
+                + "<c r=\"C3\"><f t=\"shared\" si=\"0\"/><v>14</v></c>"
+                + "<c r=\"D3\"><f t=\"shared\" si=\"0\"/><v>38</v></c></row>");
+        try {
+            List<String> streamed = readFormulas(file);
+            List<String> poi = new ArrayList<>();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(file)) {
+                workbook.getSheetAt(0).forEach(row -> {
+                    for (Cell cell : row) {
+                        if (cell.getCellType() == CellType.FORMULA) {
+                            poi.add(cell.getCellFormula());
+                        }
+                    }
+                });
+            } catch (InvalidFormatException e) {
+                throw new IOException(e);
+            }
+            Assert.assertEquals(streamed, poi);
+            Assert.assertEquals(streamed.get(3), "C3*2+$A$1");
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    @Test
+    public void fallsBackToCachedValueWithoutFirstCell() throws IOException {
+        File file = writeWorkbook("<row r=\"2\"><c r=\"E2\" t=\"str\"><f t=\"shared\" si=\"7\"/><v>orphan</v></c></row>");
+        try {
+            Assert.assertEquals(readFormulas(file), Collections.singletonList("orphan"));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    // Formula texts in row then column order
+    private static List<String> readFormulas(File file) throws IOException {
+        List<String> formulas = new ArrayList<>();
+        try (StreamingXlsxReader reader = new StreamingXlsxReader(file)) {
+            reader.readSheet(0, row -> {
+                for (int column = 0; column < row.getLastCellNum(); column++) {
+                    XlsxCell cell = row.getCell(column);
+                    if (cell != null && cell.getCellType() == CellType.FORMULA) {
+                        formulas.add(cell.getCellFormula());
+                    }
+                }
+            });
+        }
+        return formulas;
+    }
+
+    // A one-sheet workbook with just the parts both readers need
+    private static File writeWorkbook(String rows) throws IOException {
+        File file = File.createTempFile("shared-formulas", ".xlsx");
+        String sheet = "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+                + rows + "</sheetData></worksheet>";
+        String[][] parts = {
+                {"[Content_Types].xml", "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                        + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                        + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                        + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                        + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                        + "</Types>"},
+                {"_rels/.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                        + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                        + "</Relationships>"},
+                {"xl/workbook.xml", "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                        + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                        + "<sheets><sheet name=\"Sheet1\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>"},
+                {"xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                        + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                        + "</Relationships>"},
+                {"xl/worksheets/sheet1.xml", sheet},
+        };
+        try (OutputStream out = Files.newOutputStream(file.toPath()); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String[] part : parts) {
+                zip.putNextEntry(new ZipEntry(part[0]));
+                zip.write(part[1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,311 @@
+package postmanCollectionsHelper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Writes Postman v2.1 collections of controlled size and shape for load and scale tests of the exporters and
+ * mergers, since the real collections cannot be shared. Output goes straight through a {@link JsonGenerator}, so
+ * files of any size are written in constant memory.
+ *
+ * The same seed and options give byte-identical files. Requests sit in the leaf folders of a tree
+ * {@code depth} levels deep with {@code folders} subfolders per level, {@code itemsPerFolder} each. A
+ * {@code duplicateShare} of them repeat the method, URL and body of an earlier request, also one from an earlier
+ * file of the same generator. URLs use the {{base_url}} and {{catalog_ms_url}} placeholders.
+ *
+ * Configured with -Dsynthetic.* properties, see {@link Options#fromSystemProperties()}.
+ */
+public class SyntheticCollectionGenerator {
+    private static final Logger LOG = LogManager.getLogger(SyntheticCollectionGenerator.class);
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH"};
+    private static final String[] RESOURCES = {"offers", "products", "customers", "orders", "balance", "recharge"};
+    private static final int[] CODES = {200, 400, 404, 500};
+    private static final String[] STATUSES = {"OK", "Bad Request", "Not Found", "Internal Server Error"};
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    public static final class Options {
+        long seed = 42;
+        int depth = 2;
+        int folders = 5;
+        int itemsPerFolder = 20;
+        double duplicateShare = 0.2;
+        int bodyChars = 512;
+        int responseChars = 2048;
+        int responses = 2;
+        double oversizedShare = 0;
+
+        /**
+         * -Dsynthetic.seed (42), .depth (2), .folders (5), .itemsPerFolder (20), .duplicateShare (0.2),
+         * .bodyChars (512), .responseChars (2048), .responses (2) and .oversizedShare (0, share of saved
+         * responses longer than an Excel cell).
+         */
+        public static Options fromSystemProperties() {
+            return new Options()
+                    .seed(Long.getLong("synthetic.seed", 42L))
+                    .depth(Integer.getInteger("synthetic.depth", 2))
+                    .folders(Integer.getInteger("synthetic.folders", 5))
+                    .itemsPerFolder(Integer.getInteger("synthetic.itemsPerFolder", 20))
+                    .duplicateShare(Double.parseDouble(System.getProperty("synthetic.duplicateShare", "0.2")))
+                    .bodyChars(Integer.getInteger("synthetic.bodyChars", 512))
+                    .responseChars(Integer.getInteger("synthetic.responseChars", 2048))
+                    .responses(Integer.getInteger("synthetic.responses", 2))
+                    .oversizedShare(Double.parseDouble(System.getProperty("synthetic.oversizedShare", "0")));
+        }
+
+        public Options seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Options depth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+
+        public Options folders(int folders) {
+            this.folders = folders;
+            return this;
+        }
+
+        public Options itemsPerFolder(int itemsPerFolder) {
+            this.itemsPerFolder = itemsPerFolder;
+            return this;
+        }
+
+        public Options duplicateShare(double duplicateShare) {
+            this.duplicateShare = duplicateShare;
+            return this;
+        }
+
+        public Options bodyChars(int bodyChars) {
+            this.bodyChars = bodyChars;
+            return this;
+        }
+
+        public Options responseChars(int responseChars) {
+            this.responseChars = responseChars;
+            return this;
+        }
+
+        public Options responses(int responses) {
+            this.responses = responses;
+            return this;
+        }
+
+        public Options oversizedShare(double oversizedShare) {
+            this.oversizedShare = oversizedShare;
+            return this;
+        }
+    }
+
+    private final Options options;
+    private final Random random;
+    private final StringBuilder text = new StringBuilder();
+    private char[] chars = new char[1024];
+    // Requests are numbered across files, so duplicates can point back into an earlier file
+    private long distinctRequests;
+    private long requests;
+    private long duplicates;
+
+    public SyntheticCollectionGenerator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String outputDir = args.length > 0 ? args[0] : "/Users/bs00880/myworkspace/collections";
+        int files = Integer.getInteger("synthetic.files", 1);
+        File directory = new File(outputDir);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+
+        SyntheticCollectionGenerator generator = new SyntheticCollectionGenerator(Options.fromSystemProperties());
+        long start = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < files; i++) {
+            File file = new File(directory, "Synthetic_Collection_" + (i + 1) + ".json");
+            generator.write(file, "Synthetic Collection " + (i + 1));
+            bytes += file.length();
+            LOG.info("Generated {}", file.getAbsolutePath());
+        }
+        LOG.printf(Level.INFO, "Generated %d requests (%d duplicates) in %d files, %.1f MB in %.1f s", generator.requests,
+                generator.duplicates, files, bytes / 1048576.0, (System.nanoTime() - start) / 1e9);
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Writes one collection; calling it again continues the same request sequence in a new file.
+     */
+    public void write(File file, String collectionName) throws IOException {
+        try (JsonGenerator out = JsonParseCache.MAPPER.getFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            out.writeStartObject();
+            out.writeObjectFieldStart("info");
+            out.writeStringField("_postman_id", new UUID(random.nextLong(), random.nextLong()).toString());
+            out.writeStringField("name", collectionName);
+            out.writeStringField("schema", "https://schema.getpostman.com/json/collection/v2.1.0/collection.json");
+            out.writeEndObject();
+            out.writeArrayFieldStart("item");
+            writeItems(out, options.depth, "");
+            out.writeEndArray();
+            out.writeEndObject();
+        }
+    }
+
+    private void writeItems(JsonGenerator out, int depth, String folderName) throws IOException {
+        if (depth == 0) {
+            for (int i = 0; i < options.itemsPerFolder; i++) {
+                writeRequest(out);
+            }
+            return;
+        }
+        for (int f = 0; f < options.folders; f++) {
+            String name = (folderName.isEmpty() ? "" : folderName + ".") + RESOURCES[f % RESOURCES.length] + "-" + (f + 1);
+            out.writeStartObject();
+            out.writeStringField("name", name);
+            out.writeArrayFieldStart("item");
+            writeItems(out, depth - 1, name);
+            out.writeEndArray();
+            out.writeEndObject();
+        }
+    }
+
+    private void writeRequest(JsonGenerator out) throws IOException {
+        long id;
+        if (distinctRequests > 0 && random.nextDouble() < options.duplicateShare) {
+            id = (long) (random.nextDouble() * distinctRequests);
+            duplicates++;
+        } else {
+            id = distinctRequests++;
+        }
+        requests++;
+        // Everything that makes the request unique derives from its id, so a duplicate matches its original
+        Random request = new Random(options.seed * 31 + id);
+        String method = METHODS[(int) (id % METHODS.length)];
+        String resource = RESOURCES[(int) (id / METHODS.length % RESOURCES.length)];
+        boolean catalog = id % 3 == 0;
+        String host = catalog ? "{{catalog_ms_url}}" : "{{base_url}}";
+        String version = "v" + (1 + id % 2);
+        String page = String.valueOf(request.nextInt(10) + 1);
+
+        out.writeStartObject();
+        out.writeStringField("name", method + " " + resource + " " + id);
+        out.writeObjectFieldStart("request");
+        out.writeStringField("method", method);
+        out.writeArrayFieldStart("header");
+        writeHeader(out, "Content-Type", "application/json");
+        writeHeader(out, "Authorization", "Bearer {{access_token}}");
+        out.writeEndArray();
+        if (!"GET".equals(method) && !"DELETE".equals(method)) {
+            out.writeObjectFieldStart("body");
+            out.writeStringField("mode", "raw");
+            out.writeFieldName("raw");
+            writeJson(out, request, vary(request, options.bodyChars));
+            out.writeObjectFieldStart("options");
+            out.writeObjectFieldStart("raw");
+            out.writeStringField("language", "json");
+            out.writeEndObject();
+            out.writeEndObject();
+            out.writeEndObject();
+        }
+        out.writeObjectFieldStart("url");
+        out.writeStringField("raw", host + "/api/" + version + "/" + resource + "/" + id + "?page=" + page);
+        out.writeArrayFieldStart("host");
+        out.writeString(host);
+        out.writeEndArray();
+        out.writeArrayFieldStart("path");
+        out.writeString("api");
+        out.writeString(version);
+        out.writeString(resource);
+        out.writeString(String.valueOf(id));
+        out.writeEndArray();
+        out.writeArrayFieldStart("query");
+        out.writeStartObject();
+        out.writeStringField("key", "page");
+        out.writeStringField("value", page);
+        out.writeEndObject();
+        out.writeEndArray();
+        out.writeEndObject();
+        out.writeEndObject();
+
+        out.writeArrayFieldStart("response");
+        for (int r = 0; r < options.responses; r++) {
+            int code = r % CODES.length;
+            out.writeStartObject();
+            out.writeStringField("name", STATUSES[code] + "-" + CODES[code]);
+            out.writeStringField("status", STATUSES[code]);
+            out.writeNumberField("code", CODES[code]);
+            out.writeStringField("_postman_previewlanguage", "json");
+            out.writeArrayFieldStart("header");
+            writeHeader(out, "Content-Type", "application/json");
+            writeHeader(out, "X-Request-Id", Long.toHexString(random.nextLong()));
+            out.writeEndArray();
+            out.writeFieldName("body");
+            boolean oversized = random.nextDouble() < options.oversizedShare;
+            writeJson(out, random, oversized ? OverflowStore.MAX_CELL_LENGTH + vary(random, options.responseChars)
+                    : vary(random, options.responseChars));
+            out.writeEndObject();
+        }
+        out.writeEndArray();
+        out.writeEndObject();
+    }
+
+    private static void writeHeader(JsonGenerator out, String key, String value) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("key", key);
+        out.writeStringField("value", value);
+        out.writeEndObject();
+    }
+
+    // Between half and one and a half times the configured size
+    private static int vary(Random random, int size) {
+        return size / 2 + random.nextInt(Math.max(1, size));
+    }
+
+    // A JSON object of about the given length, written as a string value without building a String for it
+    private void writeJson(JsonGenerator out, Random random, int length) throws IOException {
+        text.setLength(0);
+        text.append('{');
+        for (int field = 0; text.length() < length; field++) {
+            if (field > 0) {
+                text.append(',');
+            }
+            text.append("\"field").append(field).append("\":");
+            switch (field % 4) {
+                case 0:
+                    text.append(random.nextInt(1000000));
+                    break;
+                case 1:
+                    text.append(random.nextBoolean());
+                    break;
+                default:
+                    text.append('"');
+                    for (int i = 4 + random.nextInt(28); i > 0; i--) {
+                        text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                    }
+                    text.append('"');
+            }
+        }
+        text.append('}');
+        if (chars.length < text.length()) {
+            chars = new char[Math.max(text.length(), chars.length * 2)];
+        }
+        text.getChars(0, text.length(), chars, 0);
+        out.writeString(chars, 0, text.length());
+    }
+}
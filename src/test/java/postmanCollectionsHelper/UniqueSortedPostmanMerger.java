@@ -1,15 +1,25 @@
 package postmanCollectionsHelper;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import postmanCollectionsHelper.PostmanCollectionReader.ItemVisitor;
+import postmanCollectionsHelper.PostmanCollectionReader.PostmanItem;
+import postmanCollectionsHelper.PostmanCollectionReader.RecordingVisitor;
+import postmanCollectionsHelper.PostmanCollectionReader.RequestLine;
 
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public class UniqueSortedPostmanMerger {
+    private static final Logger LOG = LogManager.getLogger(UniqueSortedPostmanMerger.class);
+    // Fields that make a request unique, -Dfingerprint.fields (default method,url)
+    private static final RequestFingerprinter FINGERPRINTER = RequestFingerprinter.fromSystemProperties();
+
+    private static final boolean PARALLEL = Boolean.getBoolean("parallel");
 
     public static void main(String[] args) {
         String inputDir = "/Users/bs00880/myworkspace/collections";
@@ -25,92 +35,127 @@ public class UniqueSortedPostmanMerger {
         String outputFileName = "Unique_Sorted_Collection_" + timestamp + ".json";
         File outputFile = new File(outputDirectory, outputFileName);
 
-        ObjectMapper objectMapper = new ObjectMapper();
         File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
 
         if (files == null) {
-            System.out.println("No Postman collections found in directory: " + inputDir);
+            LOG.info("No Postman collections found in directory: {}", inputDir);
             return;
         }
 
-        int totalProcessed = 0;
-        Set<String> uniqueRequests = new HashSet<>();
-        List<JsonNode> sortedRequests = new ArrayList<>();
+        LongAdder totalProcessed = RunMetrics.shared().counter("requests.processed");
+        LongAdder totalSkippedHistory = RunMetrics.shared().counter("requests.skipped.history");
+        FingerprintSet uniqueRequests = new FingerprintSet();
+        MergeHistory history;
+        try {
+            history = MergeHistory.fromSystemProperties();
+        } catch (IOException e) {
+            LOG.error("Error opening merge history: {}", e.getMessage());
+            return;
+        }
+        // Sorts by URL within -Dsort.memoryMb, spilling sorted runs to temp files when the items do not fit
+        ExternalItemSorter sortedRequests = ExternalItemSorter.fromSystemProperties();
 
-        System.out.println("Processing collections from directory: " + inputDir);
-        for (File file : files) {
+        LOG.info("Processing collections from directory: {}", inputDir);
+        ItemVisitor collector = item -> totalProcessed.add(extractRequest(item, uniqueRequests, history, totalSkippedHistory, sortedRequests));
+        if (PARALLEL) {
+            // Parse files concurrently and replay them through the dedupe in the serial file order
             try {
-                System.out.println("Processing file: " + file.getName());
-                JsonNode collection = objectMapper.readTree(file);
-                ArrayNode items = (ArrayNode) collection.get("item");
-
-                if (items != null) {
-                    totalProcessed += extractRequests(items, uniqueRequests, sortedRequests);
-                }
+                ParallelFileProcessor.process(files, UniqueSortedPostmanMerger::recordCollection, (file, events) -> {
+                    LOG.info("Processing file: {}", file.getName());
+                    events.forEach(event -> event.replayTo(collector));
+                });
             } catch (IOException e) {
-                System.err.println("Error reading file: " + file.getName());
-                e.printStackTrace();
+                LOG.error("Error processing collections: {}", e.getMessage(), e);
+            }
+        } else {
+            for (File file : files) {
+                try {
+                    LOG.info("Processing file: {}", file.getName());
+                    PostmanCollectionReader.read(file, collector);
+                } catch (IOException e) {
+                    LOG.error("Error reading file: {}", file.getName(), e);
+                }
             }
         }
 
-        // Sort requests alphabetically by URL
-        sortedRequests.sort(Comparator.comparing(req -> req.get("request").get("url").get("raw").asText()));
-
-        // Create final collection JSON
-        ObjectNode finalCollection = objectMapper.createObjectNode();
-        finalCollection.putObject("info")
-            .put("_postman_id", UUID.randomUUID().toString())
-            .put("name", "Unique Sorted API Collection")
-            .put("schema", "https://schema.getpostman.com/json/collection/v2.1.0/collection.json");
-        finalCollection.set("item", objectMapper.valueToTree(sortedRequests));
-
-        // Save the collection
+        // Stream the requests, sorted alphabetically by URL, into the collection file
+        boolean saved = false;
+        try {
+            try (MergedCollectionWriter writer = new MergedCollectionWriter(outputFile, "Unique Sorted API Collection")) {
+                sortedRequests.writeTo(writer);
+            }
+            LOG.info("✅ Unique Sorted Collection saved at: {}", outputFile.getAbsolutePath());
+            if (sortedRequests.getRunCount() > 0) {
+                LOG.info("Sorted {} requests through {} spilled runs", sortedRequests.size(), sortedRequests.getRunCount());
+            }
+            saved = true;
+        } catch (IOException e) {
+            LOG.error("Error saving file: {}", outputFile.getAbsolutePath(), e);
+        }
+        try {
+            sortedRequests.close();
+        } catch (IOException e) {
+            LOG.error("Error deleting sort runs: {}", e.getMessage());
+        }
         try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, finalCollection);
-            System.out.println("✅ Unique Sorted Collection saved at: " + outputFile.getAbsolutePath());
+            // Only requests that made it into a saved collection count as merged for later runs
+            if (saved) {
+                history.commit();
+            }
+            history.close();
         } catch (IOException e) {
-            System.err.println("Error saving file: " + outputFile.getAbsolutePath());
-            e.printStackTrace();
+            LOG.error("Error updating merge history: {}", e.getMessage());
         }
 
         // Print final summary
         int totalUnique = uniqueRequests.size();
-        int totalSkipped = totalProcessed - totalUnique;
-        System.out.println("\n===== UNIQUE SORTED COLLECTION SUMMARY =====");
-        System.out.println("Total Requests Processed: " + totalProcessed);
-        System.out.println("Total Unique Requests: " + totalUnique);
-        System.out.println("Total Skipped Requests (Duplicates): " + totalSkipped);
+        long totalSkipped = totalProcessed.sum() - totalUnique;
+        RunMetrics.shared().counter("requests.unique").add(totalUnique);
+        LOG.info("\n===== UNIQUE SORTED COLLECTION SUMMARY =====");
+        LOG.info("Total Requests Processed: {}", totalProcessed.sum());
+        LOG.info("Total Unique Requests: {}", totalUnique);
+        LOG.info("Total Skipped Requests (Duplicates): {}", totalSkipped);
+        if (history.isEnabled()) {
+            LOG.info("Total Skipped Requests (Merged in Earlier Runs): {}", totalSkippedHistory.sum());
+            LOG.info(history.stats());
+        }
     }
 
-    private static int extractRequests(ArrayNode items, Set<String> uniqueRequests, List<JsonNode> sortedRequests) {
-        int count = 0;
-        for (JsonNode item : items) {
-            if (item.has("item")) {
-                // Recursively process folders
-                count += extractRequests((ArrayNode) item.get("item"), uniqueRequests, sortedRequests);
-            } else {
-                // Process an actual request
-                JsonNode request = item.get("request");
-                if (request != null) {
-                    count++;
-                    String method = request.get("method").asText();
-                    JsonNode urlNode = request.get("url");
-
-                    if (urlNode != null) {
-                        String url = urlNode.get("raw").asText();
-                        String uniqueKey = method + "_" + url;
-
-                        if (!uniqueRequests.contains(uniqueKey)) {
-                            uniqueRequests.add(uniqueKey);
-                            sortedRequests.add(item);
-                            System.out.println("Added unique request: " + method + " " + url);
-                        } else {
-                            System.out.println("Skipped duplicate request: " + method + " " + url);
-                        }
-                    }
+    // Runs on a worker thread; the events are replayed by the writer while the file is still being read
+    private static void recordCollection(File file, Consumer<RecordingVisitor.Event> events) {
+        try {
+            PostmanCollectionReader.read(file, new RecordingVisitor(events));
+        } catch (IOException e) {
+            LOG.error("Error reading file: {}", file.getName(), e);
+        }
+    }
+
+    // Folders are flattened by PostmanCollectionReader, so only leaf items arrive here
+    private static int extractRequest(PostmanItem item, FingerprintSet uniqueRequests, MergeHistory history,
+                                      LongAdder totalSkippedHistory, ExternalItemSorter sortedRequests) throws IOException {
+        RequestLine request = item.getRequestLine();
+        if (request == null) {
+            return 0;
+        }
+        String method = request.getMethod();
+        String url = request.getUrl();
+
+        if (url != null) {
+            ContentFingerprint uniqueKey = FINGERPRINTER.fingerprint(method, url, request.getBody());
+
+            if (!uniqueRequests.contains(uniqueKey)) {
+                uniqueRequests.add(uniqueKey);
+                if (!history.add(uniqueKey)) {
+                    totalSkippedHistory.increment();
+                    LOG.debug("Skipped request merged in an earlier run: {} {}", method, url);
+                } else {
+                    sortedRequests.add(url, item);
+                    LOG.debug("Added unique request: {} {}", method, url);
                 }
+            } else {
+                LOG.debug("Skipped duplicate request: {} {}", method, url);
             }
         }
-        return count;
+        return 1;
     }
 }
@@ -0,0 +1,197 @@
+package postmanCollectionsHelper;
+
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes string values into one column of an existing .xlsx in a single streaming pass. All zip entries are copied
+ * as they are except the sheet XML, which is piped through StAX with the patched cells replaced or inserted as
+ * inline strings. The workbook is never loaded, and styles, other sheets and untouched rows are kept byte for byte.
+ *
+ * Only rows that already exist in the sheet are patched. The result is written next to the file and moved over it.
+ */
+public class XlsxCellPatcher {
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Sets {@code column} of every row for which {@code values} returns a value; rows mapped to null are left untouched.
+     */
+    public static void patchColumn(File workbook, int sheetIndex, int column, Function<Integer, String> values) throws IOException {
+        String sheetEntry;
+        try (StreamingXlsxReader reader = new StreamingXlsxReader(workbook)) {
+            sheetEntry = reader.getSheetEntryName(sheetIndex);
+        }
+
+        Path patched = Files.createTempFile(workbook.getAbsoluteFile().getParentFile().toPath(), workbook.getName(), ".tmp");
+        try {
+            try (ZipFile source = new ZipFile(workbook);
+                 ZipOutputStream target = new ZipOutputStream(Files.newOutputStream(patched))) {
+                Enumeration<? extends ZipEntry> entries = source.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    target.putNextEntry(new ZipEntry(entry.getName()));
+                    try (InputStream data = source.getInputStream(entry)) {
+                        if (entry.getName().equals(sheetEntry)) {
+                            patchSheet(data, target, column, values);
+                        } else {
+                            copy(data, target);
+                        }
+                    }
+                    target.closeEntry();
+                }
+            }
+            Files.move(patched, workbook.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(patched);
+        }
+    }
+
+    private static void copy(InputStream data, OutputStream target) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = data.read(buffer)) != -1) {
+            target.write(buffer, 0, read);
+        }
+    }
+
+    private static void patchSheet(InputStream data, OutputStream target, int column, Function<Integer, String> values) throws IOException {
+        XMLEventFactory events = XMLHelper.newXMLEventFactory();
+        try {
+            XMLEventReader reader = XMLHelper.newXMLInputFactory().createXMLEventReader(data);
+            XMLEventWriter writer = XMLHelper.newXMLOutputFactory().createXMLEventWriter(new NonClosingOutputStream(target), "UTF-8");
+
+            String value = null; // value for the current row, null when the row is not patched
+            String cellRef = null;
+            int nextColumn = 0;
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    StartElement element = event.asStartElement();
+                    String name = element.getName().getLocalPart();
+                    if (name.equals("row")) {
+                        Attribute rowRef = element.getAttributeByName(new QName("r"));
+                        value = rowRef != null ? values.apply(Integer.parseInt(rowRef.getValue()) - 1) : null;
+                        cellRef = value != null ? CellReference.convertNumToColString(column) + rowRef.getValue() : null;
+                        nextColumn = 0;
+                    } else if (name.equals("c") && value != null) {
+                        Attribute ref = element.getAttributeByName(new QName("r"));
+                        int cellColumn = ref != null ? StreamingXlsxReader.columnIndex(ref.getValue()) : nextColumn;
+                        nextColumn = cellColumn + 1;
+                        if (cellColumn == column) {
+                            // Replace the cell, keeping its style
+                            writeCell(events, writer, element.getName(), cellRef, element.getAttributeByName(new QName("s")), value);
+                            value = null;
+                            skipElement(reader);
+                            continue;
+                        } else if (cellColumn > column) {
+                            writeCell(events, writer, element.getName(), cellRef, null, value);
+                            value = null;
+                        }
+                    }
+                } else if (event.isEndElement() && value != null && event.asEndElement().getName().getLocalPart().equals("row")) {
+                    // Row has no cell at or after the column yet
+                    QName rowName = event.asEndElement().getName();
+                    writeCell(events, writer, new QName(rowName.getNamespaceURI(), "c", rowName.getPrefix()), cellRef, null, value);
+                    value = null;
+                }
+                writer.add(event);
+            }
+            writer.close();
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot patch sheet: " + e.getMessage(), e);
+        }
+    }
+
+    // Writes <c r=".." s=".." t="inlineStr"><is><t xml:space="preserve">value</t></is></c>
+    private static void writeCell(XMLEventFactory events, XMLEventWriter writer, QName cellName, String cellRef,
+                                  Attribute style, String value) throws XMLStreamException {
+        String ns = cellName.getNamespaceURI();
+        String prefix = cellName.getPrefix();
+        List<Attribute> attributes = new ArrayList<>();
+        attributes.add(events.createAttribute("r", cellRef));
+        if (style != null) {
+            attributes.add(style);
+        }
+        attributes.add(events.createAttribute("t", "inlineStr"));
+        writer.add(events.createStartElement(prefix, ns, "c", attributes.iterator(), null));
+        writer.add(events.createStartElement(prefix, ns, "is"));
+        List<Attribute> space = new ArrayList<>();
+        space.add(events.createAttribute("xml", XML_NS, "space", "preserve"));
+        writer.add(events.createStartElement(prefix, ns, "t", space.iterator(), null));
+        writer.add(events.createCharacters(xmlSafe(value)));
+        writer.add(events.createEndElement(prefix, ns, "t"));
+        writer.add(events.createEndElement(prefix, ns, "is"));
+        writer.add(events.createEndElement(prefix, ns, "c"));
+    }
+
+    // Consumes the rest of the element whose start tag was just read
+    private static void skipElement(XMLEventReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+        }
+    }
+
+    // Drops characters that XML 1.0 cannot represent, e.g. control bytes in a response body
+    private static String xmlSafe(String value) {
+        StringBuilder safe = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean valid = c == '\t' || c == '\n' || c == '\r' || (c >= 0x20 && c <= 0xFFFD);
+            if (!valid && safe == null) {
+                safe = new StringBuilder(value.length()).append(value, 0, i);
+            } else if (valid && safe != null) {
+                safe.append(c);
+            }
+        }
+        return safe != null ? safe.toString() : value;
+    }
+
+    // Keeps the zip stream open when the XML writer is closed
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}